@@ -0,0 +1,134 @@
+package com.example.bitwayws.analysis;
+
+import com.example.bitwayws.dto.TradeAnalysisDeltaResDto;
+import com.example.bitwayws.dto.TradeAnalysisLogResDto;
+import com.example.bitwayws.dto.WhaleTradeResDto;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// 심볼별로 직전에 발행한 분석 스냅샷을 기억해 다음 발행 형태를 정한다
+// 변화가 없으면 발행하지 않고, 바뀐 부분만 delta 로 보내며, keyframeEvery 번마다 또는 누적값이 줄어들면(거래일 전환) 전체 스냅샷을 보낸다.
+// delta 가 중간에 유실된 클라이언트가 오래 멈춰 있지 않도록 마지막 keyframe 후 keyframeIntervalMs 가 지나도 전체 스냅샷을 보낸다.
+public class AnalysisDeltaTracker {
+
+    private final int keyframeEvery;
+    private final long keyframeIntervalMs;
+
+    // guarded by this
+    private TradeAnalysisLogResDto previous;
+    private long seq;
+    private int sinceKeyframe;
+    private long lastKeyframeAt;
+    private long keyframes;
+    private long deltas;
+    private long unchanged;
+
+    public AnalysisDeltaTracker(int keyframeEvery, long keyframeIntervalMs) {
+        this.keyframeEvery = Math.max(1, keyframeEvery);
+        this.keyframeIntervalMs = keyframeIntervalMs;
+    }
+
+    // 변화가 없으면 null. keyframe 이면 current 에 seq 를 매겨 그대로 돌려준다
+    public synchronized Frame next(TradeAnalysisLogResDto current, long nowMs) {
+        if (previous != null && sameState(previous, current)) {
+            unchanged++;
+            return null;
+        }
+        long baseSeq = seq;
+        current.setSeq(++seq);
+
+        Frame frame;
+        boolean keyframeDue = previous == null || sinceKeyframe + 1 >= keyframeEvery
+                || (keyframeIntervalMs > 0 && nowMs - lastKeyframeAt >= keyframeIntervalMs);
+        TradeAnalysisDeltaResDto delta = keyframeDue ? null : diff(previous, current, baseSeq);
+        if (delta == null) {
+            sinceKeyframe = 0;
+            lastKeyframeAt = nowMs;
+            keyframes++;
+            frame = new Frame(seq, true, current);
+        } else {
+            sinceKeyframe++;
+            deltas++;
+            frame = new Frame(seq, false, delta);
+        }
+        previous = current;
+        return frame;
+    }
+
+    // 누적값이 줄었거나 이전 고래 체결을 찾을 수 없으면 null (keyframe 필요)
+    private static TradeAnalysisDeltaResDto diff(TradeAnalysisLogResDto before, TradeAnalysisLogResDto after, long baseSeq) {
+        double buyDelta = value(after.getBuyVolume()) - value(before.getBuyVolume());
+        double sellDelta = value(after.getSellVolume()) - value(before.getSellVolume());
+        if (buyDelta < 0 || sellDelta < 0) return null;
+
+        Map<Integer, Long> levels = new HashMap<>();
+        for (Map.Entry<Integer, Long> entry : after.getTradeLevels().entrySet()) {
+            long old = before.getTradeLevels().getOrDefault(entry.getKey(), 0L);
+            if (entry.getValue() < old) return null;
+            if (entry.getValue() != old) levels.put(entry.getKey(), entry.getValue());
+        }
+        if (!after.getTradeLevels().keySet().containsAll(before.getTradeLevels().keySet())) return null;
+
+        List<WhaleTradeResDto> newWhales = newWhaleTrades(before.getWhaleTrades(), after.getWhaleTrades());
+        if (newWhales == null) return null;
+
+        return TradeAnalysisDeltaResDto.builder()
+                .symbol(after.getSymbol())
+                .seq(after.getSeq())
+                .baseSeq(baseSeq)
+                .latestTradeTime(Objects.equals(before.getLatestTradeTime(), after.getLatestTradeTime())
+                        ? null : after.getLatestTradeTime())
+                .tradeLevels(levels.isEmpty() ? null : levels)
+                .whaleTrades(newWhales.isEmpty() ? null : newWhales)
+                .buyVolumeDelta(buyDelta == 0 ? null : buyDelta)
+                .sellVolumeDelta(sellDelta == 0 ? null : sellDelta)
+                .diffVolume(Objects.equals(before.getDiffVolume(), after.getDiffVolume()) ? null : after.getDiffVolume())
+                .volatilityDetected(before.isVolatilityDetected() == after.isVolatilityDetected()
+                        ? null : after.isVolatilityDetected())
+                .build();
+    }
+
+    // 고래 목록은 오래된 것부터 밀려나는 최근 N건이므로 이전 목록의 마지막 이후가 새 체결
+    private static List<WhaleTradeResDto> newWhaleTrades(List<WhaleTradeResDto> before, List<WhaleTradeResDto> after) {
+        if (before.isEmpty()) return after;
+        int last = after.lastIndexOf(before.get(before.size() - 1));
+        if (last < 0) return null;
+        return after.subList(last + 1, after.size());
+    }
+
+    private static boolean sameState(TradeAnalysisLogResDto before, TradeAnalysisLogResDto after) {
+        return Objects.equals(before.getBuyVolume(), after.getBuyVolume())
+                && Objects.equals(before.getSellVolume(), after.getSellVolume())
+                && Objects.equals(before.getLatestTradeTime(), after.getLatestTradeTime())
+                && before.isVolatilityDetected() == after.isVolatilityDetected()
+                && Objects.equals(before.getTradeLevels(), after.getTradeLevels())
+                && Objects.equals(before.getWhaleTrades(), after.getWhaleTrades());
+    }
+
+    private static double value(Double volume) {
+        return volume == null ? 0 : volume;
+    }
+
+    public synchronized long getSeq() {
+        return seq;
+    }
+
+    public synchronized long getKeyframeCount() {
+        return keyframes;
+    }
+
+    public synchronized long getDeltaCount() {
+        return deltas;
+    }
+
+    public synchronized long getUnchangedCount() {
+        return unchanged;
+    }
+
+    // payload: keyframe 이면 TradeAnalysisLogResDto, 아니면 TradeAnalysisDeltaResDto
+    public record Frame(long seq, boolean keyframe, Object payload) {
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.bitwayws.analysis;
+
+import com.example.bitwayws.dto.CandleResDto;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+// 심볼별 OHLCV 캔들 (1s → 1m → 5m → 1h → 1d)
+// 체결은 1초 캔들에만 더하고, 캔들이 닫힐 때 바로 위 단위 캔들에 합친다. 상위 단위는 체결을 다시 보지 않는다.
+// 닫힌 캔들은 단위별로 최근 historySize 개만 보관한다. 일 캔들은 거래일(08:00 Asia/Seoul) 기준.
+public class CandleAggregator {
+
+    public static final String[] INTERVALS = {"1s", "1m", "5m", "1h", "1d"};
+    private static final long[] INTERVAL_MS = {1_000L, 60_000L, 300_000L, 3_600_000L, 86_400_000L};
+    private static final int DAY = INTERVALS.length - 1;
+
+    private final String symbol;
+    private final int historySize;
+
+    // 단위별 진행 중인 캔들과 닫힌 캔들 (오래된 순)
+    private final Candle[] current = new Candle[INTERVALS.length];
+    private final List<ArrayDeque<Candle>> history = new ArrayList<>(INTERVALS.length);
+    private long lateTrades;
+
+    public CandleAggregator(String symbol, int historySize) {
+        this.symbol = symbol;
+        this.historySize = historySize;
+        for (int i = 0; i < INTERVALS.length; i++) {
+            history.add(new ArrayDeque<>(Math.min(historySize, 1024)));
+        }
+    }
+
+    public static int levelOf(String interval) {
+        for (int i = 0; i < INTERVALS.length; i++) {
+            if (INTERVALS[i].equals(interval)) return i;
+        }
+        throw new IllegalArgumentException("지원하지 않는 캔들 단위: " + interval);
+    }
+
+    // 이 체결로 닫힌 캔들은 closed 에 담긴다 (작은 단위부터)
+    public synchronized void add(double price, double quantity, long timestamp, boolean buyerMaker, List<CandleResDto> closed) {
+        long second = bucketStart(0, timestamp);
+        Candle candle = current[0];
+        if (candle != null && second > candle.openTime) {
+            close(0, closed);
+            candle = null;
+        }
+        if (candle == null || second < candle.openTime) {
+            // 이미 닫힌 1초 구간의 늦은 체결(복구 체결 등)은 아직 열려 있는 가장 작은 상위 캔들에 더한다
+            Candle target = candle == null && !isLate(0, second) ? openCandle(0, second) : openContaining(timestamp);
+            if (target == null) {
+                lateTrades++;
+                return;
+            }
+            candle = target;
+        }
+        candle.add(price, quantity, timestamp, buyerMaker);
+    }
+
+    // now 기준으로 끝난 캔들을 닫는다 (체결이 없는 동안에도 캔들이 제때 닫히도록 주기적으로 호출)
+    public synchronized void closeExpired(long now, List<CandleResDto> closed) {
+        for (int level = 0; level < INTERVALS.length; level++) {
+            Candle candle = current[level];
+            if (candle != null && now >= candle.closeTime) {
+                close(level, closed);
+            }
+        }
+    }
+
+    // 닫힌 캔들 최근 limit 개 + 진행 중인 캔들(하위 단위 진행분 포함), 오래된 순
+    public synchronized List<CandleResDto> recent(int level, int limit) {
+        ArrayDeque<Candle> closedCandles = history.get(level);
+        List<CandleResDto> result = new ArrayList<>(Math.min(limit, closedCandles.size()) + 1);
+        int skip = Math.max(0, closedCandles.size() - limit);
+        Iterator<Candle> it = closedCandles.iterator();
+        for (int i = 0; it.hasNext(); i++) {
+            Candle candle = it.next();
+            if (i >= skip) result.add(candle.toDto(symbol, true));
+        }
+        Candle live = live(level);
+        if (live != null) result.add(live.toDto(symbol, false));
+        return result;
+    }
+
+    public synchronized long getLateTrades() {
+        return lateTrades;
+    }
+
+    // level 캔들을 닫고 상위 단위에 합친다. 상위 캔들이 다른 구간이면 그것도 먼저 닫는다
+    private void close(int level, List<CandleResDto> closed) {
+        Candle candle = current[level];
+        current[level] = null;
+        ArrayDeque<Candle> closedCandles = history.get(level);
+        if (closedCandles.size() == historySize) closedCandles.pollFirst();
+        closedCandles.addLast(candle);
+        closed.add(candle.toDto(symbol, true));
+
+        int parentLevel = level + 1;
+        if (parentLevel == INTERVALS.length) return;
+        long parentStart = bucketStart(parentLevel, candle.openTime);
+        Candle parent = current[parentLevel];
+        if (parent != null && parent.openTime != parentStart) {
+            if (parentStart < parent.openTime) return; // 이미 지난 상위 구간 (늦은 체결만 있던 경우)
+            close(parentLevel, closed);
+            parent = null;
+        }
+        if (parent == null) {
+            if (isLate(parentLevel, parentStart)) return;
+            parent = openCandle(parentLevel, parentStart);
+        }
+        parent.merge(candle);
+    }
+
+    private Candle openCandle(int level, long openTime) {
+        Candle candle = new Candle(level, openTime, bucketEnd(level, openTime));
+        current[level] = candle;
+        return candle;
+    }
+
+    // 해당 단위에서 openTime 이전 구간은 이미 닫혔는지
+    private boolean isLate(int level, long openTime) {
+        Candle last = history.get(level).peekLast();
+        return last != null && openTime <= last.openTime;
+    }
+
+    private Candle openContaining(long timestamp) {
+        for (int level = 1; level < INTERVALS.length; level++) {
+            Candle candle = current[level];
+            if (candle != null && timestamp >= candle.openTime && timestamp < candle.closeTime) return candle;
+        }
+        return null;
+    }
+
+    // 진행 중인 level 캔들 + 아직 합쳐지지 않은 하위 단위 진행분
+    private Candle live(int level) {
+        Candle live = null;
+        for (int i = level; i >= 0; i--) {
+            Candle candle = current[i];
+            if (candle == null) continue;
+            if (live == null) {
+                long openTime = bucketStart(level, candle.openTime);
+                live = new Candle(level, openTime, bucketEnd(level, openTime));
+            }
+            if (candle.openTime >= live.openTime && candle.openTime < live.closeTime) {
+                live.merge(candle);
+            }
+        }
+        return live;
+    }
+
+    private static long bucketStart(int level, long timestamp) {
+        if (level == DAY) return TradeDayAggregator.dayStartOf(timestamp);
+        return Math.floorDiv(timestamp, INTERVAL_MS[level]) * INTERVAL_MS[level];
+    }
+
+    private static long bucketEnd(int level, long openTime) {
+        return openTime + INTERVAL_MS[level];
+    }
+
+    private static final class Candle {
+        private final int level;
+        private final long openTime;
+        private final long closeTime; // exclusive
+        private long firstTime = Long.MAX_VALUE;
+        private long lastTime = Long.MIN_VALUE;
+        private double open;
+        private double high = Double.NEGATIVE_INFINITY;
+        private double low = Double.POSITIVE_INFINITY;
+        private double close;
+        private double volume;
+        private double quoteVolume;
+        private double buyVolume;
+        private double sellVolume;
+        private long tradeCount;
+
+        private Candle(int level, long openTime, long closeTime) {
+            this.level = level;
+            this.openTime = openTime;
+            this.closeTime = closeTime;
+        }
+
+        private void add(double price, double quantity, long timestamp, boolean buyerMaker) {
+            if (timestamp < firstTime) {
+                firstTime = timestamp;
+                open = price;
+            }
+            if (timestamp >= lastTime) {
+                lastTime = timestamp;
+                close = price;
+            }
+            high = Math.max(high, price);
+            low = Math.min(low, price);
+            volume += quantity;
+            quoteVolume += price * quantity;
+            if (buyerMaker) sellVolume += quantity;
+            else buyVolume += quantity;
+            tradeCount++;
+        }
+
+        private void merge(Candle other) {
+            if (other.tradeCount == 0) return;
+            if (other.firstTime < firstTime) {
+                firstTime = other.firstTime;
+                open = other.open;
+            }
+            if (other.lastTime >= lastTime) {
+                lastTime = other.lastTime;
+                close = other.close;
+            }
+            high = Math.max(high, other.high);
+            low = Math.min(low, other.low);
+            volume += other.volume;
+            quoteVolume += other.quoteVolume;
+            buyVolume += other.buyVolume;
+            sellVolume += other.sellVolume;
+            tradeCount += other.tradeCount;
+        }
+
+        private CandleResDto toDto(String symbol, boolean closed) {
+            return CandleResDto.builder()
+                    .symbol(symbol)
+                    .interval(INTERVALS[level])
+                    .openTime(openTime)
+                    .closeTime(closeTime - 1)
+                    .open(open)
+                    .high(high)
+                    .low(low)
+                    .close(close)
+                    .volume(volume)
+                    .quoteVolume(quoteVolume)
+                    .buyVolume(buyVolume)
+                    .sellVolume(sellVolume)
+                    .tradeCount(tradeCount)
+                    .closed(closed)
+                    .build();
+        }
+    }
+}
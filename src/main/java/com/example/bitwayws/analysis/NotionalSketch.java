@@ -0,0 +1,80 @@
+package com.example.bitwayws.analysis;
+
+// 체결 금액 분포 스케치 (DDSketch 방식의 로그 버킷 히스토그램)
+// 버킷 i 는 (gamma^(i-1), gamma^i] 구간이며 gamma = (1+a)/(1-a) 이므로 분위수의 상대 오차는 a 이내다.
+// 범위가 고정이라 심볼당 메모리가 일정하고, 추가는 log 한 번 + 배열 증가 한 번이다.
+// 지수 감쇠(decay)로 오래된 체결의 비중을 줄여 최근 분포를 따라간다. 스레드 하나에서만 갱신해야 한다.
+public class NotionalSketch {
+
+    private final double gamma;
+    private final double logGamma;
+    private final int minIndex;
+    private final double[] counts;
+    private double total;
+
+    public NotionalSketch(double relativeAccuracy, double minValue, double maxValue) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("relativeAccuracy 는 0 ~ 1 사이여야 합니다: " + relativeAccuracy);
+        }
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+        this.minIndex = rawIndex(minValue);
+        this.counts = new double[rawIndex(maxValue) - minIndex + 1];
+    }
+
+    // 범위를 벗어난 값은 양 끝 버킷에 넣는다
+    public void add(double value) {
+        if (!(value > 0)) return;
+        int index = rawIndex(value) - minIndex;
+        counts[Math.max(0, Math.min(counts.length - 1, index))]++;
+        total++;
+    }
+
+    // 0 <= q <= 1. 비어 있으면 NaN
+    public double quantile(double q) {
+        if (total <= 0) return Double.NaN;
+        double rank = Math.max(0, Math.min(1, q)) * total;
+        if (q >= 0.5) {
+            // 고래 분위수는 위쪽 꼬리에 있으므로 위에서부터 센다
+            double above = total - rank;
+            double seen = 0;
+            for (int i = counts.length - 1; i >= 0; i--) {
+                seen += counts[i];
+                if (seen > above) return valueOf(i);
+            }
+            return valueOf(0);
+        }
+        double seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank && seen > 0) return valueOf(i);
+        }
+        return valueOf(counts.length - 1);
+    }
+
+    // 모든 버킷에 factor(0 ~ 1)를 곱한다
+    public void decay(double factor) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] *= factor;
+        }
+        total *= factor;
+    }
+
+    // 감쇠가 반영된 가중 개수
+    public double getWeight() {
+        return total;
+    }
+
+    public int getBucketCount() {
+        return counts.length;
+    }
+
+    private int rawIndex(double value) {
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+
+    // 버킷 대표값 (구간 양 끝에 대한 상대 오차가 같아지는 점)
+    private double valueOf(int index) {
+        return 2 * Math.pow(gamma, index + minIndex) / (gamma + 1);
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.bitwayws.analysis;
+
+import com.example.bitwayws.dto.TradeWindowStatsResDto;
+
+import java.util.Arrays;
+
+// 심볼별 슬라이딩 윈도우 집계
+// 1초 단위 pane 에 체결을 미리 집계해 두고, 설정된 윈도우(예: 1s/10s/1m/5m/1h)마다 누적 합계를 유지한다.
+// pane 이 윈도우 밖으로 밀려날 때만 빼 주므로 조회 시 체결을 다시 훑지 않는다.
+public class SlidingWindowAnalytics {
+
+    public static final int HORIZON_SECONDS = 3600;
+
+    private final String symbol;
+    private final int[] windows;
+
+    // pane 컬럼 (index = epochSecond % HORIZON_SECONDS)
+    private final long[] paneSecond = new long[HORIZON_SECONDS];
+    private final double[] paneBuyNotional = new double[HORIZON_SECONDS];
+    private final double[] paneSellNotional = new double[HORIZON_SECONDS];
+    private final double[] paneQuantity = new double[HORIZON_SECONDS];
+    private final long[] paneCount = new long[HORIZON_SECONDS];
+
+    // 윈도우별 누적 합계
+    private final double[] buyNotional;
+    private final double[] sellNotional;
+    private final double[] quantity;
+    private final long[] count;
+    // 윈도우별로 이미 합계에서 제외한 마지막 초
+    private final long[] evictedUpTo;
+
+    private long currentSecond = Long.MIN_VALUE;
+
+    public SlidingWindowAnalytics(String symbol, int[] windowSeconds) {
+        int[] sorted = windowSeconds.clone();
+        Arrays.sort(sorted);
+        for (int w : sorted) {
+            if (w <= 0 || w > HORIZON_SECONDS) {
+                throw new IllegalArgumentException("윈도우는 1 ~ " + HORIZON_SECONDS + "초 범위여야 합니다: " + w);
+            }
+        }
+        this.symbol = symbol;
+        this.windows = sorted;
+        this.buyNotional = new double[sorted.length];
+        this.sellNotional = new double[sorted.length];
+        this.quantity = new double[sorted.length];
+        this.count = new long[sorted.length];
+        this.evictedUpTo = new long[sorted.length];
+        Arrays.fill(paneSecond, Long.MIN_VALUE);
+    }
+
+    public synchronized void add(double price, double qty, long timestamp, boolean buyerMaker) {
+        long sec = Math.floorDiv(timestamp, 1000L);
+        advance(sec);
+        if (sec <= currentSecond - HORIZON_SECONDS) return; // 보관 범위를 벗어난 지연 체결
+
+        int idx = index(sec);
+        if (paneSecond[idx] != sec) {
+            paneSecond[idx] = sec;
+            paneBuyNotional[idx] = 0;
+            paneSellNotional[idx] = 0;
+            paneQuantity[idx] = 0;
+            paneCount[idx] = 0;
+        }
+        double notional = price * qty;
+        if (buyerMaker) paneSellNotional[idx] += notional;
+        else paneBuyNotional[idx] += notional;
+        paneQuantity[idx] += qty;
+        paneCount[idx]++;
+
+        for (int w = 0; w < windows.length; w++) {
+            if (sec <= evictedUpTo[w]) continue; // 이미 이 윈도우 밖
+            if (buyerMaker) sellNotional[w] += notional;
+            else buyNotional[w] += notional;
+            quantity[w] += qty;
+            count[w]++;
+        }
+    }
+
+    // nowMillis 기준 최근 windowSeconds 초 집계. 설정된 윈도우는 O(1), 그 외는 pane 합산
+    public synchronized TradeWindowStatsResDto stats(int windowSeconds, long nowMillis) {
+        if (windowSeconds <= 0 || windowSeconds > HORIZON_SECONDS) {
+            throw new IllegalArgumentException("윈도우는 1 ~ " + HORIZON_SECONDS + "초 범위여야 합니다: " + windowSeconds);
+        }
+        advance(Math.floorDiv(nowMillis, 1000L));
+
+        int w = Arrays.binarySearch(windows, windowSeconds);
+        if (w >= 0) {
+            return toDto(windowSeconds, buyNotional[w], sellNotional[w], quantity[w], count[w]);
+        }
+
+        double buy = 0, sell = 0, qty = 0;
+        long trades = 0;
+        for (long sec = currentSecond - windowSeconds + 1; sec <= currentSecond; sec++) {
+            int idx = index(sec);
+            if (paneSecond[idx] != sec) continue;
+            buy += paneBuyNotional[idx];
+            sell += paneSellNotional[idx];
+            qty += paneQuantity[idx];
+            trades += paneCount[idx];
+        }
+        return toDto(windowSeconds, buy, sell, qty, trades);
+    }
+
+    // 설정된 윈도우의 현재 매수/매도 금액을 buySell[0], buySell[1] 에 담는다 (마지막 체결 기준, 할당 없음)
+    // 체결 경로의 알림 평가용. 설정되지 않은 윈도우면 false
+    public synchronized boolean notional(int windowSeconds, double[] buySell) {
+        int w = Arrays.binarySearch(windows, windowSeconds);
+        if (w < 0) return false;
+        buySell[0] = buyNotional[w];
+        buySell[1] = sellNotional[w];
+        return true;
+    }
+
+    public int[] getWindows() {
+        return windows.clone();
+    }
+
+    // 현재 초를 sec 로 옮기면서 각 윈도우에서 밀려난 pane 을 뺀다
+    private void advance(long sec) {
+        if (currentSecond == Long.MIN_VALUE) {
+            currentSecond = sec;
+            for (int w = 0; w < windows.length; w++) {
+                evictedUpTo[w] = sec - windows[w];
+            }
+            return;
+        }
+        if (sec <= currentSecond) return;
+        currentSecond = sec;
+
+        for (int w = 0; w < windows.length; w++) {
+            long target = sec - windows[w];
+            if (target <= evictedUpTo[w]) continue;
+            if (target - evictedUpTo[w] >= HORIZON_SECONDS) {
+                recompute(w, target);
+            } else {
+                for (long s = evictedUpTo[w] + 1; s <= target; s++) {
+                    int idx = index(s);
+                    if (paneSecond[idx] != s) continue;
+                    buyNotional[w] -= paneBuyNotional[idx];
+                    sellNotional[w] -= paneSellNotional[idx];
+                    quantity[w] -= paneQuantity[idx];
+                    count[w] -= paneCount[idx];
+                }
+                if (count[w] == 0) {
+                    // 부동소수점 누적 오차 제거
+                    buyNotional[w] = 0;
+                    sellNotional[w] = 0;
+                    quantity[w] = 0;
+                }
+            }
+            evictedUpTo[w] = target;
+        }
+    }
+
+    // 오래 비어 있던 경우: 남아 있는 pane 으로 합계를 다시 만든다 (최대 HORIZON_SECONDS 회)
+    private void recompute(int w, long target) {
+        buyNotional[w] = 0;
+        sellNotional[w] = 0;
+        quantity[w] = 0;
+        count[w] = 0;
+        for (int idx = 0; idx < HORIZON_SECONDS; idx++) {
+            long s = paneSecond[idx];
+            if (s <= target || s > currentSecond) continue;
+            buyNotional[w] += paneBuyNotional[idx];
+            sellNotional[w] += paneSellNotional[idx];
+            quantity[w] += paneQuantity[idx];
+            count[w] += paneCount[idx];
+        }
+    }
+
+    private TradeWindowStatsResDto toDto(int windowSeconds, double buy, double sell, double qty, long trades) {
+        double total = buy + sell;
+        return TradeWindowStatsResDto.builder()
+                .symbol(symbol)
+                .windowSeconds(windowSeconds)
+                .tradeCount(trades)
+                .buyVolume(buy)
+                .sellVolume(sell)
+                .imbalance(total > 0 ? (buy - sell) / total : 0)
+                .vwap(qty > 0 ? total / qty : 0)
+                .build();
+    }
+
+    private static int index(long sec) {
+        return (int) Math.floorMod(sec, (long) HORIZON_SECONDS);
+    }
+}
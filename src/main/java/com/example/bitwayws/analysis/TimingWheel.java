@@ -0,0 +1,82 @@
+package com.example.bitwayws.analysis;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+// 해시 타이밍 휠. tickMs 간격의 슬롯 wheelSize 개를 돌며 만기된 작업만 꺼낸다.
+// 예약은 어느 스레드에서나 가능(대기 큐에 넣기만 함)하고, advance 는 휠 스레드 하나만 호출한다.
+// 예약이 없으면 tick 마다 빈 슬롯 하나만 확인하므로 심볼 수와 무관하게 유휴 비용이 없다.
+// 휠 한 바퀴보다 먼 작업은 남은 바퀴 수를 세며 같은 슬롯에 머문다. 취소는 지원하지 않으므로 호출 측에서 무효화한다.
+public class TimingWheel<T> {
+
+    private final long tickMs;
+    private final int mask;
+    private final ArrayDeque<Entry<T>>[] buckets;
+    private final ConcurrentLinkedQueue<Entry<T>> incoming = new ConcurrentLinkedQueue<>();
+
+    // 다음에 처리할 tick (휠 스레드 전용)
+    private long currentTick;
+    private volatile int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0) {
+            throw new IllegalArgumentException("tickMs 는 0보다 커야 합니다: " + tickMs);
+        }
+        if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize 는 2의 거듭제곱이어야 합니다: " + wheelSize);
+        }
+        this.tickMs = tickMs;
+        this.mask = wheelSize - 1;
+        this.buckets = new ArrayDeque[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.currentTick = Math.floorDiv(startMs, tickMs);
+    }
+
+    // dueAtMs 이후 첫 tick 에 만기 (이미 지난 시각이면 다음 advance 에서 바로)
+    public void schedule(T task, long dueAtMs) {
+        incoming.add(new Entry<>(task, Math.floorDiv(dueAtMs + tickMs - 1, tickMs)));
+    }
+
+    // nowMs 까지의 tick 을 처리하며 만기된 작업을 expired 에 넘긴다
+    public void advance(long nowMs, Consumer<T> expired) {
+        long targetTick = Math.floorDiv(nowMs, tickMs);
+        transferIncoming(expired);
+        while (currentTick <= targetTick) {
+            ArrayDeque<Entry<T>> bucket = buckets[(int) (currentTick & mask)];
+            for (int n = bucket.size(); n > 0; n--) {
+                Entry<T> entry = bucket.pollFirst();
+                if (entry.dueTick <= currentTick) {
+                    size--;
+                    expired.accept(entry.task);
+                } else {
+                    bucket.addLast(entry); // 아직 남은 바퀴가 있음
+                }
+            }
+            currentTick++;
+        }
+    }
+
+    private void transferIncoming(Consumer<T> expired) {
+        Entry<T> entry;
+        while ((entry = incoming.poll()) != null) {
+            if (entry.dueTick < currentTick) {
+                expired.accept(entry.task);
+                continue;
+            }
+            buckets[(int) (entry.dueTick & mask)].addLast(entry);
+            size++;
+        }
+    }
+
+    // 슬롯에 들어간 작업 수 (대기 큐 제외, 휠 스레드 기준)
+    public int size() {
+        return size;
+    }
+
+    private record Entry<T>(T task, long dueTick) {
+    }
+}
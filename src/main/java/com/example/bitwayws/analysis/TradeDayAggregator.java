@@ -0,0 +1,151 @@
+package com.example.bitwayws.analysis;
+
+import com.example.bitwayws.dto.TradeAnalysisLogResDto;
+import com.example.bitwayws.dto.WhaleTradeResDto;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// 심볼별 당일(08:00 Asia/Seoul 기준) 누적 집계
+// 체결마다 O(1)로 매수/매도 금액, 11단계 레벨 분포, 최근 고래 체결을 갱신하고 분석 시에는 스냅샷만 만든다.
+// 레벨/고래/변동성 기준은 심볼별 WhaleDetector 가 정한다.
+public class TradeDayAggregator {
+
+    public static final ZoneId ZONE = ZoneId.of("Asia/Seoul");
+    public static final int DAY_CUTOFF_HOUR = 8;
+    public static final int WHALE_LEVEL = 11;
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZONE);
+
+    private final String symbol;
+    private final int maxWhaleTrades;
+    private final WhaleDetector whaleDetector;
+
+    private final long[] levelCounts = new long[WHALE_LEVEL + 1];
+    private final ArrayDeque<WhaleTradeResDto> whaleTrades;
+    private double buyVolume;
+    private double sellVolume;
+    private long whaleBuyCount;
+    private long whaleSellCount;
+    private long tradeCount;
+    private long latestTimestamp;
+
+    private long dayStart = Long.MIN_VALUE;
+    private long nextDayStart = Long.MIN_VALUE;
+
+    public TradeDayAggregator(String symbol, int maxWhaleTrades, WhaleDetector whaleDetector) {
+        this.symbol = symbol;
+        this.maxWhaleTrades = maxWhaleTrades;
+        this.whaleDetector = whaleDetector;
+        this.whaleTrades = new ArrayDeque<>(maxWhaleTrades);
+    }
+
+    // 체결 레벨(1~WHALE_LEVEL)을 돌려준다. 이전 거래일 체결이면 0
+    public synchronized int add(double price, double quantity, long timestamp, boolean buyerMaker) {
+        double amount = price * quantity;
+        whaleDetector.observe(amount, timestamp);
+        if (timestamp >= nextDayStart) {
+            rollover(timestamp);
+        } else if (timestamp < dayStart) {
+            return 0; // 이전 거래일 체결 (재연결 직후 지연 수신 등)
+        }
+
+        if (buyerMaker) sellVolume += amount;
+        else buyVolume += amount;
+
+        int level = whaleDetector.level(amount);
+        levelCounts[level]++;
+        if (level == WHALE_LEVEL) {
+            if (buyerMaker) whaleSellCount++;
+            else whaleBuyCount++;
+            if (whaleTrades.size() == maxWhaleTrades) whaleTrades.pollFirst();
+            whaleTrades.addLast(WhaleTradeResDto.builder()
+                    .side(buyerMaker ? "매도" : "매수")
+                    .quantity(quantity)
+                    .price(price)
+                    .total(amount)
+                    .timestamp(FORMATTER.format(Instant.ofEpochMilli(timestamp)))
+                    .build());
+        }
+        tradeCount++;
+        latestTimestamp = Math.max(latestTimestamp, timestamp);
+        return level;
+    }
+
+    // 당일 체결이 없으면 null. 변동성은 매수-매도 금액 차가 심볼의 변동성 임계값을 넘는지
+    public synchronized TradeAnalysisLogResDto snapshot(long now) {
+        if (now >= nextDayStart) rollover(now);
+        if (tradeCount == 0) return null;
+
+        double diff = Math.abs(buyVolume - sellVolume);
+        return TradeAnalysisLogResDto.builder()
+                .symbol(symbol)
+                .tradeLevels(levelCountMap())
+                .buyVolume(buyVolume)
+                .sellVolume(sellVolume)
+                .diffVolume(diff)
+                .volatilityDetected(diff > whaleDetector.getVolatilityUsd())
+                .whaleTrades(new ArrayList<>(whaleTrades))
+                .latestTradeTime(FORMATTER.format(Instant.ofEpochMilli(latestTimestamp)))
+                .build();
+    }
+
+    public synchronized Map<Integer, Long> levelCountMap() {
+        Map<Integer, Long> map = new HashMap<>();
+        for (int level = 1; level <= WHALE_LEVEL; level++) {
+            if (levelCounts[level] > 0) map.put(level, levelCounts[level]);
+        }
+        return map;
+    }
+
+    public synchronized long getWhaleBuyCount() {
+        return whaleBuyCount;
+    }
+
+    public synchronized long getWhaleSellCount() {
+        return whaleSellCount;
+    }
+
+    public synchronized long getTradeCount() {
+        return tradeCount;
+    }
+
+    public synchronized void reset() {
+        dayStart = Long.MIN_VALUE;
+        nextDayStart = Long.MIN_VALUE;
+        clear();
+    }
+
+    private void rollover(long timestamp) {
+        dayStart = dayStartOf(timestamp);
+        nextDayStart = dayStart + Duration.ofDays(1).toMillis();
+        clear();
+    }
+
+    private void clear() {
+        Arrays.fill(levelCounts, 0);
+        whaleTrades.clear();
+        buyVolume = 0;
+        sellVolume = 0;
+        whaleBuyCount = 0;
+        whaleSellCount = 0;
+        tradeCount = 0;
+        latestTimestamp = 0;
+    }
+
+    // epochMillis 가 속한 거래일의 시작 시각 (가장 최근의 08:00 Asia/Seoul)
+    public static long dayStartOf(long epochMillis) {
+        ZonedDateTime time = Instant.ofEpochMilli(epochMillis).atZone(ZONE);
+        ZonedDateTime cutoff = time.withHour(DAY_CUTOFF_HOUR).withMinute(0).withSecond(0).withNano(0);
+        if (time.isBefore(cutoff)) cutoff = cutoff.minusDays(1);
+        return cutoff.toInstant().toEpochMilli();
+    }
+}
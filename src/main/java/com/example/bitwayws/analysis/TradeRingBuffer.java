@@ -0,0 +1,71 @@
+package com.example.bitwayws.analysis;
+
+// 심볼별 최근 체결을 원시 타입 배열(컬럼)로 보관하는 고정 크기 링 버퍼
+// Redis LRANGE + JSON 역직렬화 없이 분석 로직이 바로 읽을 수 있도록 processTrade 에서 직접 채운다.
+public class TradeRingBuffer {
+
+    private final int capacity;
+    private final int mask;
+
+    private final long[] aggTradeIds;
+    private final double[] prices;
+    private final double[] quantities;
+    private final long[] timestamps;
+    private final boolean[] buyerMakers;
+
+    // 지금까지 기록된 전체 체결 수 (다음 쓰기 위치 = writeSeq & mask)
+    private long writeSeq;
+
+    public TradeRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity 는 2의 거듭제곱이어야 합니다: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.aggTradeIds = new long[capacity];
+        this.prices = new double[capacity];
+        this.quantities = new double[capacity];
+        this.timestamps = new long[capacity];
+        this.buyerMakers = new boolean[capacity];
+    }
+
+    public synchronized void append(long aggTradeId, double price, double quantity, long timestamp, boolean buyerMaker) {
+        int idx = (int) (writeSeq & mask);
+        aggTradeIds[idx] = aggTradeId;
+        prices[idx] = price;
+        quantities[idx] = quantity;
+        timestamps[idx] = timestamp;
+        buyerMakers[idx] = buyerMaker;
+        writeSeq++;
+    }
+
+    // 최근 limit 건 중 timestamp >= fromTimestamp 인 체결을 오래된 순서로 방문한다. 방문한 건수를 반환
+    public synchronized int forEachRecent(int limit, long fromTimestamp, TradeVisitor visitor) {
+        int count = (int) Math.min(Math.min(limit, capacity), writeSeq);
+        int visited = 0;
+        for (long seq = writeSeq - count; seq < writeSeq; seq++) {
+            int idx = (int) (seq & mask);
+            if (timestamps[idx] < fromTimestamp) continue;
+            visitor.accept(aggTradeIds[idx], prices[idx], quantities[idx], timestamps[idx], buyerMakers[idx]);
+            visited++;
+        }
+        return visited;
+    }
+
+    public synchronized int size() {
+        return (int) Math.min(capacity, writeSeq);
+    }
+
+    public synchronized void clear() {
+        writeSeq = 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @FunctionalInterface
+    public interface TradeVisitor {
+        void accept(long aggTradeId, double price, double quantity, long timestamp, boolean buyerMaker);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.bitwayws.analysis;
+
+import com.example.bitwayws.dto.AggTradeSlot;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 샤드 하나의 입력 큐. 슬롯을 미리 할당해 두고 생산자(수신 스레드)가 값을 복사해 넣는다.
+// 소비자(샤드 스레드)는 [readSeq, writeSeq) 구간을 락 밖에서 그대로 처리한 뒤 한 번에 반환한다.
+public class TradeShardRing {
+
+    private final int capacity;
+    private final int mask;
+    private final AggTradeSlot[] slots;
+    private final String[] rawFrames;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
+    private long writeSeq;
+    private long readSeq;
+    private long droppedCount;
+
+    public TradeShardRing(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity 는 2의 거듭제곱이어야 합니다: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.slots = new AggTradeSlot[capacity];
+        this.rawFrames = new String[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new AggTradeSlot();
+        }
+    }
+
+    // 가득 차면 버리고 false. 수신 스레드는 기다리지 않으므로 한 샤드가 밀려도 같은 소켓의 다른 심볼은 계속 흐르고,
+    // 버린 체결은 그 심볼의 다음 체결에서 aggTradeId 누락으로 감지되어 REST 로 복구된다 (TradeSequenceTracker)
+    public boolean offer(AggTradeSlot trade, String rawFrame) {
+        lock.lock();
+        try {
+            if (writeSeq - readSeq == capacity) {
+                droppedCount++;
+                return false;
+            }
+            int idx = (int) (writeSeq & mask);
+            slots[idx].copyFrom(trade);
+            rawFrames[idx] = rawFrame;
+            if (writeSeq++ == readSeq) notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 처리할 체결이 생길 때까지 최대 timeout 대기 후, 소비 가능한 끝 시퀀스(writeSeq)를 반환
+    public long awaitAvailable(long timeout, TimeUnit unit) throws InterruptedException {
+        lock.lock();
+        try {
+            long nanos = unit.toNanos(timeout);
+            while (writeSeq == readSeq && nanos > 0) {
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return writeSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 소비자 전용: readSeq 이상 awaitAvailable 반환값 미만의 시퀀스만 접근한다
+    public AggTradeSlot slotAt(long seq) {
+        return slots[(int) (seq & mask)];
+    }
+
+    public String rawFrameAt(long seq) {
+        return rawFrames[(int) (seq & mask)];
+    }
+
+    public long getReadSeq() {
+        lock.lock();
+        try {
+            return readSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 처리한 슬롯 반환
+    public void release(long upToSeq) {
+        lock.lock();
+        try {
+            for (long seq = readSeq; seq < upToSeq; seq++) {
+                rawFrames[(int) (seq & mask)] = null;
+            }
+            readSeq = upToSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return (int) (writeSeq - readSeq);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDroppedCount() {
+        lock.lock();
+        try {
+            return droppedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
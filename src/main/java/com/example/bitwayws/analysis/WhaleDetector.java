@@ -0,0 +1,141 @@
+package com.example.bitwayws.analysis;
+
+// 심볼별 체결 레벨(1~10)/고래(11) 판정과 변동성(매수-매도 불균형) 임계값
+// FIXED: 설정한 고래 금액 사용 / ADAPTIVE: 체결 금액 스케치의 분위수(예: 상위 0.1%)를 고래 금액으로 사용
+// 레벨 1~10 은 어느 모드든 고래 금액을 10등분한 구간이다 (기본값 100,000 USD 면 기존 10,000 USD 단위와 같다).
+// observe 는 수집 스레드 하나에서만 호출하고 스케치도 그 스레드만 읽고 쓴다. 판정에 쓰는 임계값은 volatile 로 다른 스레드에서도 읽는다.
+// configure 는 어느 스레드에서나 호출할 수 있고, 스케치가 필요한 분위수 재계산은 다음 observe 에서 수집 스레드가 한다.
+public class WhaleDetector {
+
+    public enum Mode {
+        FIXED,
+        ADAPTIVE
+    }
+
+    // 모든 심볼이 공유하는 적응형 설정
+    public record Settings(double quantile, double minWhaleUsd, double volatilityMultiple,
+                           long minSamples, long halfLifeMs, double relativeAccuracy) {
+    }
+
+    private static final int STEPS = TradeDayAggregator.WHALE_LEVEL - 1;
+    private static final int RECOMPUTE_EVERY = 256;
+    private static final double MIN_NOTIONAL = 0.01;
+    private static final double MAX_NOTIONAL = 1e10;
+
+    private final String symbol;
+    private final Settings settings;
+    private final NotionalSketch sketch;
+
+    private volatile Mode mode;
+    private volatile double fixedWhaleUsd;
+    private volatile double fixedVolatilityUsd;
+
+    // 현재 적용 중인 임계값
+    private volatile double whaleUsd;
+    private volatile double volatilityUsd;
+    private volatile boolean adaptiveActive;
+
+    private volatile long observed;
+    // 설정이 바뀌어 다음 observe 에서 다시 계산해야 함
+    private volatile boolean reconfigured;
+    private int sinceRecompute;
+    private long nextDecayAt = Long.MIN_VALUE;
+
+    public WhaleDetector(String symbol, Settings settings, Mode mode, double fixedWhaleUsd, double fixedVolatilityUsd) {
+        this.symbol = symbol;
+        this.settings = settings;
+        this.sketch = new NotionalSketch(settings.relativeAccuracy(), MIN_NOTIONAL, MAX_NOTIONAL);
+        configure(mode, fixedWhaleUsd, fixedVolatilityUsd);
+    }
+
+    public synchronized void configure(Mode mode, double fixedWhaleUsd, double fixedVolatilityUsd) {
+        // NaN/Infinity 는 비교가 항상 false 이므로 부정형으로 검사한다 (NaN 이면 모든 체결이 레벨 1, 고래 없음)
+        if (!(fixedWhaleUsd > 0) || !Double.isFinite(fixedWhaleUsd)
+                || !(fixedVolatilityUsd >= 0) || !Double.isFinite(fixedVolatilityUsd)) {
+            throw new IllegalArgumentException("고래/변동성 금액은 0보다 큰 유한한 값이어야 합니다");
+        }
+        this.mode = mode;
+        this.fixedWhaleUsd = fixedWhaleUsd;
+        this.fixedVolatilityUsd = fixedVolatilityUsd;
+        // 고정 값은 스케치 없이 바로 적용하고, 분위수가 필요하면 수집 스레드에 맡긴다
+        if (mode == Mode.FIXED || observed < settings.minSamples()) {
+            applyFixed();
+        }
+        reconfigured = true;
+    }
+
+    // 체결 금액 반영 (수집 스레드). 스케치 갱신은 O(1), 임계값은 RECOMPUTE_EVERY 건마다 다시 계산
+    public void observe(double amount, long timestamp) {
+        if (timestamp >= nextDecayAt) {
+            if (nextDecayAt != Long.MIN_VALUE) sketch.decay(0.5);
+            nextDecayAt = timestamp + settings.halfLifeMs();
+        }
+        sketch.add(amount);
+        observed++;
+        if (reconfigured || ++sinceRecompute >= RECOMPUTE_EVERY) {
+            reconfigured = false;
+            sinceRecompute = 0;
+            recompute();
+        }
+    }
+
+    public int level(double amount) {
+        double whale = whaleUsd;
+        if (amount >= whale) return TradeDayAggregator.WHALE_LEVEL;
+        return Math.min(STEPS, (int) (amount / (whale / STEPS)) + 1);
+    }
+
+    // 수집 스레드 전용 (스케치를 읽는다)
+    private void recompute() {
+        if (mode == Mode.ADAPTIVE && observed >= settings.minSamples()) {
+            double quantile = sketch.quantile(settings.quantile());
+            if (!Double.isNaN(quantile)) {
+                double whale = Math.max(settings.minWhaleUsd(), quantile);
+                whaleUsd = whale;
+                volatilityUsd = whale * settings.volatilityMultiple();
+                adaptiveActive = true;
+                return;
+            }
+        }
+        applyFixed();
+    }
+
+    private void applyFixed() {
+        whaleUsd = fixedWhaleUsd;
+        volatilityUsd = fixedVolatilityUsd;
+        adaptiveActive = false;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public double getWhaleUsd() {
+        return whaleUsd;
+    }
+
+    public double getVolatilityUsd() {
+        return volatilityUsd;
+    }
+
+    public double getFixedWhaleUsd() {
+        return fixedWhaleUsd;
+    }
+
+    public double getFixedVolatilityUsd() {
+        return fixedVolatilityUsd;
+    }
+
+    // ADAPTIVE 이지만 표본이 min-samples 미만이면 false (고정 값 사용 중)
+    public boolean isAdaptiveActive() {
+        return adaptiveActive;
+    }
+
+    public long getObserved() {
+        return observed;
+    }
+}
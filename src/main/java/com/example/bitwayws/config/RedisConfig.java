@@ -1,14 +1,13 @@
 package com.example.bitwayws.config;
 
-import com.example.bitwayws.redis.pubsub.TradeAggSubscriber;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -35,17 +34,13 @@ public class RedisConfig {
     }
 
 
+    // 채널 구독은 TradeChannelSubscriptionManager 가 구독 상태에 따라 추가/해제한다.
+    // 메시지는 Redis 수신 스레드에서 바로 TradeAggSubscriber 로 넘기고, 채널별 순서를 지키는 분배는 Subscriber 가 한다.
     @Bean
-    public RedisMessageListenerContainer container(RedisConnectionFactory connectionFactory,
-                                                   TradeAggSubscriber subscriber) {
+    public RedisMessageListenerContainer container(RedisConnectionFactory connectionFactory) {
         RedisMessageListenerContainer container = new RedisMessageListenerContainer();
         container.setConnectionFactory(connectionFactory);
-        container.addMessageListener(subscriber, new ChannelTopic("bitway-trades"));
+        container.setTaskExecutor(new SyncTaskExecutor());
         return container;
     }
-
-    @Bean
-    public ChannelTopic topic() {
-        return new ChannelTopic("bitway-trades");
-    }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.example.bitwayws.controller;
+
+import com.example.bitwayws.dto.CandleResDto;
+import com.example.bitwayws.redis.service.TradeCandleService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/candles")
+@RequiredArgsConstructor
+public class CandleController {
+
+    private final TradeCandleService candleService;
+
+    // interval: 1s | 1m | 5m | 1h | 1d. 닫힌 캔들 최근 limit 개 + 진행 중인 캔들
+    @GetMapping("/{symbol}/{interval}")
+    public List<CandleResDto> getCandles(@PathVariable String symbol, @PathVariable String interval,
+                                         @RequestParam(defaultValue = "500") int limit) {
+        return candleService.getCandles(symbol, interval, Math.max(1, limit));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.bitwayws.controller;
+
+import com.example.bitwayws.redis.service.SymbolRegistry;
+import com.example.bitwayws.websocket.BinanceAggTradeWebSocketClient;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/symbols")
+@RequiredArgsConstructor
+public class SymbolController {
+
+    private final SymbolRegistry symbolRegistry;
+    // 수집 노드에서만 존재
+    private final ObjectProvider<BinanceAggTradeWebSocketClient> binanceClient;
+
+    // 현재 수집 중인 심볼
+    @GetMapping
+    public Set<String> getSymbols() {
+        return symbolRegistry.getSymbols();
+    }
+
+    // 재시작 없이 수집 심볼 추가 (combined stream 에 SUBSCRIBE)
+    @PostMapping("/{symbol}")
+    public ResponseEntity<Set<String>> addSymbol(@PathVariable String symbol) {
+        symbolRegistry.add(symbol);
+        return ResponseEntity.ok(symbolRegistry.getSymbols());
+    }
+
+    // 수집 심볼 제거 (UNSUBSCRIBE, 비게 된 연결은 종료)
+    @DeleteMapping("/{symbol}")
+    public ResponseEntity<Set<String>> removeSymbol(@PathVariable String symbol) {
+        if (!symbolRegistry.remove(symbol)) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(symbolRegistry.getSymbols());
+    }
+
+    // Binance 수집 연결별 상태 (CONNECTING/OPEN/DRAINING/CLOSED)
+    @GetMapping("/connections")
+    public Map<Integer, BinanceAggTradeWebSocketClient.State> getConnections() {
+        BinanceAggTradeWebSocketClient client = binanceClient.getIfAvailable();
+        return client == null ? Map.of() : client.getConnectionStates();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.bitwayws.controller;
+
+import com.example.bitwayws.dto.BinanceAggTradeResDto;
+import com.example.bitwayws.dto.TradeHistoryWriterStatsResDto;
+import com.example.bitwayws.persistence.TradeHistoryRepository;
+import com.example.bitwayws.persistence.TradeHistoryWriter;
+import com.example.bitwayws.redis.service.SymbolRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+// PostgreSQL 에 저장된 체결/분석 이력 조회 (from/to: epoch ms, [from, to)). 이력 저장을 켠 노드에서만 제공
+@RestController
+@ConditionalOnProperty(name = "bitway.persistence.enabled", havingValue = "true")
+@RequestMapping("/api/history")
+@RequiredArgsConstructor
+public class TradeHistoryController {
+
+    private static final long DEFAULT_RANGE_MS = 60 * 60 * 1000L;
+    private static final int MAX_LIMIT = 10000;
+
+    private final TradeHistoryRepository historyRepository;
+    private final TradeHistoryWriter historyWriter;
+
+    // 기본: 최근 1시간
+    @GetMapping("/{symbol}/trades")
+    public List<BinanceAggTradeResDto> getTrades(@PathVariable String symbol,
+                                                 @RequestParam(required = false) Long from,
+                                                 @RequestParam(required = false) Long to,
+                                                 @RequestParam(defaultValue = "1000") int limit) {
+        long end = to == null ? System.currentTimeMillis() : to;
+        long start = from == null ? end - DEFAULT_RANGE_MS : from;
+        return historyRepository.findTrades(SymbolRegistry.normalize(symbol), start, end, clampLimit(limit));
+    }
+
+    // 저장된 TradeAnalysisLogResDto JSON 을 역직렬화 없이 배열로 이어 붙여 반환
+    @GetMapping(value = "/{symbol}/analysis", produces = MediaType.APPLICATION_JSON_VALUE)
+    public String getAnalysis(@PathVariable String symbol,
+                              @RequestParam(required = false) Long from,
+                              @RequestParam(required = false) Long to,
+                              @RequestParam(defaultValue = "100") int limit) {
+        long end = to == null ? System.currentTimeMillis() : to;
+        long start = from == null ? end - DEFAULT_RANGE_MS : from;
+        List<String> payloads = historyRepository.findAnalysisPayloads(SymbolRegistry.normalize(symbol), start, end, clampLimit(limit));
+        return "[" + String.join(",", payloads) + "]";
+    }
+
+    @GetMapping("/writer")
+    public TradeHistoryWriterStatsResDto getWriterStats() {
+        return TradeHistoryWriterStatsResDto.builder()
+                .writtenTrades(historyWriter.getWrittenTrades())
+                .writtenAnalyses(historyWriter.getWrittenAnalyses())
+                .pendingCount(historyWriter.getPendingCount())
+                .droppedCount(historyWriter.getDroppedCount())
+                .failedCount(historyWriter.getFailedCount())
+                .build();
+    }
+
+    private static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
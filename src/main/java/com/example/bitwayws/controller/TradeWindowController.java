@@ -0,0 +1,38 @@
+package com.example.bitwayws.controller;
+
+import com.example.bitwayws.dto.AnalysisTriggerStatsResDto;
+import com.example.bitwayws.dto.TradeWindowStatsResDto;
+import com.example.bitwayws.redis.service.TradeAggAnalysisService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/trades")
+@RequiredArgsConstructor
+public class TradeWindowController {
+
+    private final TradeAggAnalysisService tradeAnalysisService;
+
+    // 설정된 모든 윈도우(1s/10s/1m/5m/1h 등) 통계
+    @GetMapping("/{symbol}/windows")
+    public List<TradeWindowStatsResDto> getWindows(@PathVariable String symbol) {
+        return tradeAnalysisService.getAllWindowStats(symbol);
+    }
+
+    // 임의 길이(1 ~ 3600초) 윈도우 통계
+    @GetMapping("/{symbol}/windows/{seconds}")
+    public TradeWindowStatsResDto getWindow(@PathVariable String symbol, @PathVariable int seconds) {
+        return tradeAnalysisService.getWindowStats(symbol, seconds);
+    }
+
+    // 분석 트리거 예약 수 / 사유별 실행 횟수 / 발행 형태별 횟수
+    @GetMapping("/analysis-triggers")
+    public AnalysisTriggerStatsResDto getAnalysisTriggers() {
+        return tradeAnalysisService.getAnalysisTriggerStats();
+    }
+}
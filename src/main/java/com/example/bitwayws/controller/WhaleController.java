@@ -0,0 +1,41 @@
+package com.example.bitwayws.controller;
+
+import com.example.bitwayws.analysis.WhaleDetector;
+import com.example.bitwayws.dto.WhaleThresholdResDto;
+import com.example.bitwayws.redis.service.WhaleConfigService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/whale")
+@RequiredArgsConstructor
+public class WhaleController {
+
+    private final WhaleConfigService whaleConfigService;
+
+    @GetMapping
+    public List<WhaleThresholdResDto> getThresholds() {
+        return whaleConfigService.getThresholds();
+    }
+
+    @GetMapping("/{symbol}")
+    public WhaleThresholdResDto getThreshold(@PathVariable String symbol) {
+        return whaleConfigService.getThreshold(symbol);
+    }
+
+    // PUT /api/whale/btcusdt?mode=FIXED&whaleUsd=1000000&volatilityUsd=5000000 (생략한 값은 유지)
+    @PutMapping("/{symbol}")
+    public WhaleThresholdResDto configure(@PathVariable String symbol,
+                                          @RequestParam(required = false) WhaleDetector.Mode mode,
+                                          @RequestParam(required = false) Double whaleUsd,
+                                          @RequestParam(required = false) Double volatilityUsd) {
+        return whaleConfigService.configure(symbol, mode, whaleUsd, volatilityUsd);
+    }
+}
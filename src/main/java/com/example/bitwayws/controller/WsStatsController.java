@@ -0,0 +1,47 @@
+package com.example.bitwayws.controller;
+
+import com.example.bitwayws.dto.TradeAlertStatsResDto;
+import com.example.bitwayws.dto.WsFanoutStatsResDto;
+import com.example.bitwayws.dto.WsSessionStatsResDto;
+import com.example.bitwayws.redis.handler.TradeAggWebSocketHandler;
+import com.example.bitwayws.redis.pubsub.TradeChannelSubscriptions;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/ws")
+@RequiredArgsConstructor
+public class WsStatsController {
+
+    private final TradeAggWebSocketHandler tradeWebSocketHandler;
+    private final TradeChannelSubscriptions channelSubscriptions;
+
+    // 세션별 대기열/지연
+    @GetMapping("/sessions")
+    public List<WsSessionStatsResDto> getSessions() {
+        return tradeWebSocketHandler.getSessionStats();
+    }
+
+    // fan-out 실행기 대기 작업 수 / 전송 지연
+    @GetMapping("/fanout")
+    public WsFanoutStatsResDto getFanout() {
+        return tradeWebSocketHandler.getFanoutStats();
+    }
+
+    // 알림 규칙 수 / 전송 건수 / 체결 시각 대비 지연
+    @GetMapping("/alerts")
+    public TradeAlertStatsResDto getAlerts() {
+        return tradeWebSocketHandler.getAlertStats();
+    }
+
+    // 이 노드가 Redis 에서 받아오는 심볼 (Pub/Sub 채널 또는 Streams)
+    @GetMapping("/redis-channels")
+    public Set<String> getRedisChannels() {
+        return channelSubscriptions.getSubscribedSymbols();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.bitwayws.dto;
+
+import lombok.Data;
+
+// 수신 스레드에서 재사용하는 가변 체결 슬롯 (체결마다 DTO 를 새로 만들지 않기 위함)
+@Data
+public class AggTradeSlot {
+    private long aggTradeId;
+    private double price;
+    private double quantity;
+    private long timestamp;
+    private boolean buyerMaker;
+    private String symbol;
+
+    public void copyFrom(AggTradeSlot other) {
+        aggTradeId = other.aggTradeId;
+        price = other.price;
+        quantity = other.quantity;
+        timestamp = other.timestamp;
+        buyerMaker = other.buyerMaker;
+        symbol = other.symbol;
+    }
+
+    public BinanceAggTradeResDto toDto() {
+        BinanceAggTradeResDto dto = new BinanceAggTradeResDto();
+        dto.setAggTradeId(aggTradeId);
+        dto.setPrice(price);
+        dto.setQuantity(quantity);
+        dto.setTimestamp(timestamp);
+        dto.setBuyerMaker(buyerMaker);
+        dto.setSymbol(symbol);
+        return dto;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.bitwayws.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class AnalysisTriggerStatsResDto {
+    private int symbols;                // 트리거 상태가 있는 심볼 수
+    private int scheduled;              // 타이밍 휠에 예약된 작업 수
+    private long tradeTriggers;         // N건 체결
+    private long intervalTriggers;      // 활동 중 최대 간격
+    private long whaleTriggers;         // 고래 체결
+    private long priceMoveTriggers;     // 가격 변동
+    private long keyframes;             // 전체 스냅샷으로 발행
+    private long deltas;                // 변경분만 발행
+    private long unchanged;             // 변화가 없어 발행 생략
+}
@@ -0,0 +1,25 @@
+package com.example.bitwayws.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+// OHLCV 캔들 (closed=false 면 진행 중인 캔들)
+@Data
+@Builder
+public class CandleResDto {
+    private final String type = "candle";
+    private String symbol;
+    private String interval;    // 1s | 1m | 5m | 1h | 1d
+    private long openTime;
+    private long closeTime;     // 다음 캔들 시작 시각 - 1
+    private double open;
+    private double high;
+    private double low;
+    private double close;
+    private double volume;      // 체결 수량 합
+    private double quoteVolume; // 체결 금액 합 (USD)
+    private double buyVolume;   // 매수(taker) 체결 수량
+    private double sellVolume;  // 매도(taker) 체결 수량
+    private long tradeCount;
+    private boolean closed;
+}
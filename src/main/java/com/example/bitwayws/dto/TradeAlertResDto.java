@@ -0,0 +1,21 @@
+package com.example.bitwayws.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+// 실시간 알림 프레임 (/ws/trade 로 등록한 규칙에 걸린 체결 또는 윈도우 불균형)
+@Data
+@Builder
+public class TradeAlertResDto {
+    private final String type = "alert";
+    private String kind;            // whale | imbalance
+    private String symbol;
+    private String side;            // BUY | SELL (taker 기준, imbalance 는 우세한 쪽)
+    private long aggTradeId;        // 알림을 일으킨 체결
+    private long tradeTime;
+    private double price;
+    private double quantity;
+    private double notional;        // whale: 체결 금액, imbalance: 윈도우 매수+매도 금액
+    private Integer windowSeconds;  // imbalance 만
+    private Double imbalance;       // imbalance 만: (매수-매도)/(매수+매도)
+}
@@ -0,0 +1,15 @@
+package com.example.bitwayws.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class TradeAlertStatsResDto {
+    private int sessions;           // 규칙을 등록한 세션 수
+    private int whaleRules;
+    private int imbalanceRules;
+    private long sentCount;         // 세션 큐에 넣은 알림 수
+    private long lastLagMs;         // 마지막 알림의 체결 시각 대비 지연
+    private long maxLagMs;
+}
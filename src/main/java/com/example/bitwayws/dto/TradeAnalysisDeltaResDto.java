@@ -0,0 +1,27 @@
+package com.example.bitwayws.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+// 직전 분석(baseSeq) 대비 바뀐 부분만 담은 분석 프레임. 비어 있는 필드는 변화 없음
+// 클라이언트는 가진 분석의 seq 가 baseSeq 와 같을 때만 적용하고, 아니면 다음 keyframe(type=analysis) 을 기다린다
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TradeAnalysisDeltaResDto {
+    private final String type = "analysisDelta";
+    private String symbol;
+    private long seq;
+    private long baseSeq;
+    private String latestTradeTime;
+    private Map<Integer, Long> tradeLevels;         // 바뀐 레벨의 새 누적 건수
+    private List<WhaleTradeResDto> whaleTrades;     // 새 고래 체결 (기존 목록 뒤에 이어 붙임)
+    private Double buyVolumeDelta;                  // 매수 금액 증가분
+    private Double sellVolumeDelta;                 // 매도 금액 증가분
+    private Double diffVolume;
+    private Boolean volatilityDetected;
+}
@@ -6,9 +6,12 @@ import lombok.Data;
 import java.util.List;
 import java.util.Map;
 
+// 분석 전체 스냅샷. analysis:<symbol> 채널에서는 keyframe 으로 쓰이며 seq 이후는 TradeAnalysisDeltaResDto 로 이어진다
 @Data
 @Builder
 public class TradeAnalysisLogResDto {
+    private final String type = "analysis";
+    private Long seq;
     private String symbol;
     private String latestTradeTime;
     private Map<Integer, Long> tradeLevels;
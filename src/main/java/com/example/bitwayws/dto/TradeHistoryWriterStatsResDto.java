@@ -0,0 +1,14 @@
+package com.example.bitwayws.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class TradeHistoryWriterStatsResDto {
+    private long writtenTrades;
+    private long writtenAnalyses;
+    private int pendingCount;       // 저장 대기 건수
+    private long droppedCount;      // 큐 초과로 버린 건수
+    private long failedCount;       // DB 오류로 버린 건수
+}
@@ -0,0 +1,22 @@
+package com.example.bitwayws.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+// conflation(ohlcv) 모드: 직전 전송 이후 체결 요약
+@Data
+@Builder
+public class TradeOhlcvDeltaResDto {
+    private final String type = "ohlcv";
+    private String symbol;
+    private double open;
+    private double high;
+    private double low;
+    private double close;
+    private double volume;      // 체결 수량 합
+    private double buyVolume;   // 매수 체결 금액 (USD)
+    private double sellVolume;  // 매도 체결 금액 (USD)
+    private long tradeCount;
+    private long startTime;
+    private long endTime;
+}
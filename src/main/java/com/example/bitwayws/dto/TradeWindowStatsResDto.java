@@ -0,0 +1,16 @@
+package com.example.bitwayws.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class TradeWindowStatsResDto {
+    private String symbol;
+    private int windowSeconds;
+    private long tradeCount;
+    private double buyVolume;   // 매수 체결 금액 (USD)
+    private double sellVolume;  // 매도 체결 금액 (USD)
+    private double imbalance;   // (매수 - 매도) / (매수 + 매도), -1 ~ 1
+    private double vwap;
+}
@@ -0,0 +1,19 @@
+package com.example.bitwayws.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+// 심볼별 고래/레벨/변동성 기준 (현재 적용 중인 값)
+@Data
+@Builder
+public class WhaleThresholdResDto {
+    private String symbol;
+    private String mode;                // FIXED | ADAPTIVE
+    private boolean adaptiveActive;     // ADAPTIVE 이고 표본이 충분해 분위수를 쓰는 중
+    private double whaleUsd;            // 이 금액 이상이면 고래(레벨 11)
+    private double levelStepUsd;        // 레벨 1~10 구간 크기
+    private double volatilityUsd;       // 매수-매도 금액 차 임계값
+    private double fixedWhaleUsd;
+    private double fixedVolatilityUsd;
+    private long observedTrades;
+}
@@ -0,0 +1,13 @@
+package com.example.bitwayws.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+// 클라이언트 요청 거부 프레임 (/ws/trade 의 alert 규칙 검증 실패 등)
+@Data
+@Builder
+public class WsErrorResDto {
+    private final String type = "error";
+    private String id;      // 요청의 id (알림 규칙 id), 없으면 null
+    private String reason;
+}
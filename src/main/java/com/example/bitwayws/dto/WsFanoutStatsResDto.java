@@ -0,0 +1,16 @@
+package com.example.bitwayws.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class WsFanoutStatsResDto {
+    private String mode;             // PLATFORM | VIRTUAL
+    private int threads;
+    private long pendingTasks;       // 실행 대기 중인 세션 전송 작업 수
+    private long rejectedTasks;
+    private long sendCount;
+    private double avgSendLatencyMs;
+    private double maxSendLatencyMs;
+}
@@ -0,0 +1,21 @@
+package com.example.bitwayws.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Set;
+
+@Data
+@Builder
+public class WsSessionStatsResDto {
+    private String sessionId;
+    private Set<String> symbols;
+    private String encoding;        // JSON | BINARY
+    private int queuedMessages;     // 전송 대기 메시지 수
+    private int queuedBytes;        // 전송 대기 바이트
+    private int maxQueueDepth;      // 최대 대기 메시지 수
+    private long sentCount;
+    private long droppedCount;      // 큐 초과로 버린 메시지 수
+    private long sentBytes;         // 전송한 payload 바이트 (압축 전)
+    private long lastSendLatencyMs;
+}
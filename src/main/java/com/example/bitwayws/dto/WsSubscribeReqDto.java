@@ -0,0 +1,30 @@
+package com.example.bitwayws.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.List;
+
+// 클라이언트 구독 변경 메시지 예: {"action":"subscribe","symbols":["btcusdt","ethusdt"]}
+// conflation: {"action":"subscribe","symbols":["btcusdt"],"mode":"conflate","maxRate":5,"format":"ohlcv"}
+// 스냅샷: 구독 직후 {"type":"snapshot",...} 로 분석/윈도우/캔들/최근 체결을 보낸다. 체결 수는 "history":100 또는 "since":<aggTradeId>, "snapshot":false 면 생략
+// 알림: {"action":"alert","id":"w1","symbols":["btcusdt"],"minNotional":500000,"side":"BUY"}
+//       {"action":"alert","id":"i1","imbalance":0.7,"window":10,"minNotional":1000000} (symbols 생략 시 전체 심볼)
+//       {"action":"unalert","id":"w1"} (id 생략 시 전체 해제)
+@JsonIgnoreProperties(ignoreUnknown = true)
+@Data
+public class WsSubscribeReqDto {
+    private String action;          // subscribe | unsubscribe | alert | unalert
+    private List<String> symbols;
+    private String mode;            // realtime(기본) | conflate
+    private Integer maxRate;        // conflate: 초당 최대 전송 횟수
+    private String format;          // conflate: latest(기본) | batch | ohlcv
+    private Integer history;        // 구독 직후 최근 N건 스냅샷
+    private Long since;             // 구독 직후 이 aggTradeId 이후 체결 스냅샷
+    private Boolean snapshot;       // false 면 구독 스냅샷 생략 (생략 시 서버 설정)
+    private String id;              // alert: 클라이언트가 정한 규칙 id
+    private Double minNotional;     // alert: 최소 체결 금액(USD). imbalance 규칙이면 윈도우 최소 거래 금액
+    private String side;            // alert: BUY | SELL (생략 시 양쪽)
+    private Double imbalance;       // alert: 불균형 임계값 (0~1). 지정하면 imbalance 규칙
+    private Integer window;         // alert: 불균형 윈도우(초), bitway.analysis.windows 중 하나
+}
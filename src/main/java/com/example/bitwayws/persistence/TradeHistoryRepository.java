@@ -0,0 +1,144 @@
+package com.example.bitwayws.persistence;
+
+import com.example.bitwayws.analysis.TradeDayAggregator;
+import com.example.bitwayws.dto.BinanceAggTradeResDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Repository;
+
+import java.io.StringReader;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+// trade_history / analysis_history 접근 (JdbcTemplate)
+// 체결은 COPY, 분석 결과는 JDBC batch insert 로 쓰고, 조회는 (symbol, 시간 범위) 로 파티션과 인덱스를 탄다.
+@Repository
+@ConditionalOnProperty(name = "bitway.persistence.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class TradeHistoryRepository {
+
+    public static final String TRADE_TABLE = "trade_history";
+    public static final String ANALYSIS_TABLE = "analysis_history";
+
+    private static final DateTimeFormatter DAY_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final Pattern SYMBOL_PATTERN = Pattern.compile("[a-z0-9]{2,30}");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // 이미 만든 파티션 이름
+    private final Set<String> partitions = ConcurrentHashMap.newKeySet();
+
+    public void createSchema() {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            new ResourceDatabasePopulator(new ClassPathResource("db/trade-history.sql")).populate(connection);
+            return null;
+        });
+    }
+
+    // table 의 day 파티션과 그 아래 symbol 파티션을 없으면 만든다
+    public void ensurePartition(String table, LocalDate day, String symbol) {
+        if (!SYMBOL_PATTERN.matcher(symbol).matches()) {
+            throw new IllegalArgumentException("잘못된 심볼: " + symbol);
+        }
+        String dayPartition = table + "_p" + day.format(DAY_SUFFIX);
+        String symbolPartition = dayPartition + "_" + symbol;
+        if (partitions.contains(symbolPartition)) return;
+
+        if (!partitions.contains(dayPartition)) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + dayPartition + " PARTITION OF " + table
+                    + " FOR VALUES FROM ('" + dayStart(day) + "') TO ('" + dayStart(day.plusDays(1)) + "')"
+                    + " PARTITION BY LIST (symbol)");
+            partitions.add(dayPartition);
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + symbolPartition + " PARTITION OF " + dayPartition
+                + " FOR VALUES IN ('" + symbol + "')");
+        partitions.add(symbolPartition);
+        log.info("[이력 저장] 파티션 생성: {}", symbolPartition);
+    }
+
+    // DB 재시작 등으로 파티션 상태를 알 수 없게 되면 다시 확인하도록
+    public void forgetPartitions() {
+        partitions.clear();
+    }
+
+    public long copyTrades(List<TradeHistoryWriter.TradeRow> rows) {
+        StringBuilder data = new StringBuilder(rows.size() * 80);
+        for (TradeHistoryWriter.TradeRow row : rows) {
+            data.append(row.symbol()).append('\t')
+                    .append(row.aggTradeId()).append('\t')
+                    .append(row.price()).append('\t')
+                    .append(row.quantity()).append('\t')
+                    .append(Instant.ofEpochMilli(row.tradeTime())).append('\t')
+                    .append(row.buyerMaker() ? 't' : 'f').append('\n');
+        }
+        Long copied = jdbcTemplate.execute((ConnectionCallback<Long>) connection ->
+                connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                        "COPY " + TRADE_TABLE + " (symbol, agg_trade_id, price, quantity, trade_time, buyer_maker) FROM STDIN",
+                        new StringReader(data.toString())));
+        return copied == null ? 0 : copied;
+    }
+
+    public void insertAnalyses(List<TradeHistoryWriter.AnalysisRow> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO " + ANALYSIS_TABLE
+                        + " (symbol, created_at, buy_volume, sell_volume, diff_volume, volatility_detected, payload)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?::jsonb)",
+                rows, rows.size(), (ps, row) -> {
+                    ps.setString(1, row.symbol());
+                    ps.setTimestamp(2, new Timestamp(row.createdAt()));
+                    ps.setObject(3, row.buyVolume());
+                    ps.setObject(4, row.sellVolume());
+                    ps.setObject(5, row.diffVolume());
+                    ps.setBoolean(6, row.volatilityDetected());
+                    ps.setString(7, row.payload());
+                });
+    }
+
+    // [from, to) 체결, 시간 순
+    public List<BinanceAggTradeResDto> findTrades(String symbol, long from, long to, int limit) {
+        return jdbcTemplate.query("SELECT agg_trade_id, price, quantity, trade_time, buyer_maker FROM " + TRADE_TABLE
+                        + " WHERE symbol = ? AND trade_time >= ? AND trade_time < ?"
+                        + " ORDER BY trade_time, agg_trade_id LIMIT ?",
+                (rs, rowNum) -> {
+                    BinanceAggTradeResDto trade = new BinanceAggTradeResDto();
+                    trade.setSymbol(symbol.toUpperCase());
+                    trade.setAggTradeId(rs.getLong(1));
+                    trade.setPrice(rs.getDouble(2));
+                    trade.setQuantity(rs.getDouble(3));
+                    trade.setTimestamp(rs.getTimestamp(4).getTime());
+                    trade.setBuyerMaker(rs.getBoolean(5));
+                    return trade;
+                },
+                symbol, new Timestamp(from), new Timestamp(to), limit);
+    }
+
+    // [from, to) 분석 결과 원문(JSON), 시간 순
+    public List<String> findAnalysisPayloads(String symbol, long from, long to, int limit) {
+        return jdbcTemplate.queryForList("SELECT payload::text FROM " + ANALYSIS_TABLE
+                        + " WHERE symbol = ? AND created_at >= ? AND created_at < ?"
+                        + " ORDER BY created_at LIMIT ?",
+                String.class, symbol, new Timestamp(from), new Timestamp(to), limit);
+    }
+
+    // 거래일(08:00 Asia/Seoul 시작, TradeDayAggregator 와 같은 기준)
+    public static LocalDate dayOf(long epochMillis) {
+        return Instant.ofEpochMilli(TradeDayAggregator.dayStartOf(epochMillis)).atZone(TradeDayAggregator.ZONE).toLocalDate();
+    }
+
+    private static Instant dayStart(LocalDate day) {
+        return day.atTime(LocalTime.of(TradeDayAggregator.DAY_CUTOFF_HOUR, 0)).atZone(TradeDayAggregator.ZONE).toInstant();
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.bitwayws.persistence;
+
+import com.example.bitwayws.dto.AggTradeSlot;
+import com.example.bitwayws.dto.TradeAnalysisLogResDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+// 체결/분석 결과 PostgreSQL 비동기 저장
+// 샤드/분석 스레드는 bounded 큐에 넣기만 하고(가득 차면 버림), 전용 스레드가 batch-size 또는 flush-ms 단위로 모아 쓴다.
+// DB 가 느리거나 내려가도 수집은 기다리지 않는다.
+// bitway.persistence.enabled=true 일 때만 생성된다 (기본은 DB 없이 동작)
+@Component
+@ConditionalOnProperty(name = "bitway.persistence.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class TradeHistoryWriter {
+
+    private final TradeHistoryRepository repository;
+
+    // 저장 대기 큐 크기 (체결/분석 각각)
+    @Value("${bitway.persistence.queue-capacity:200000}")
+    private int queueCapacity;
+
+    // 한 번에 쓰는 최대 건수
+    @Value("${bitway.persistence.batch-size:5000}")
+    private int batchSize;
+
+    // batch-size 에 못 미쳐도 이 시간마다 쓴다 (ms)
+    @Value("${bitway.persistence.flush-ms:500}")
+    private long flushMs;
+
+    private BlockingQueue<TradeRow> trades;
+    private BlockingQueue<AnalysisRow> analyses;
+    private Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean schemaReady;
+
+    private final AtomicLong writtenTrades = new AtomicLong();
+    private final AtomicLong writtenAnalyses = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        trades = new ArrayBlockingQueue<>(queueCapacity);
+        analyses = new ArrayBlockingQueue<>(queueCapacity);
+        thread = new Thread(this::run, "trade-history-writer");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("[이력 저장] 시작: queueCapacity={}, batchSize={}, flushMs={}", queueCapacity, batchSize, flushMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (thread == null) return;
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 샤드 스레드에서 호출 (실시간/복구 체결 모두)
+    public void appendTrade(String symbol, AggTradeSlot trade) {
+        offer(trades, new TradeRow(symbol, trade.getAggTradeId(), trade.getPrice(), trade.getQuantity(),
+                trade.getTimestamp(), trade.isBuyerMaker()));
+    }
+
+    // 분석 실행기에서 호출. json 은 이미 직렬화된 분석 결과
+    public void appendAnalysis(String symbol, long createdAt, TradeAnalysisLogResDto analysis, String json) {
+        offer(analyses, new AnalysisRow(symbol, createdAt, analysis.getBuyVolume(), analysis.getSellVolume(),
+                analysis.getDiffVolume(), analysis.isVolatilityDetected(), json));
+    }
+
+    private <T> void offer(BlockingQueue<T> queue, T row) {
+        if (!queue.offer(row)) {
+            long dropped = droppedCount.incrementAndGet();
+            if (dropped % 10000 == 1) {
+                log.warn("[이력 저장] 큐가 가득 차 버렸습니다 (누적 {}건)", dropped);
+            }
+        }
+    }
+
+    private void run() {
+        List<TradeRow> tradeBatch = new ArrayList<>(batchSize);
+        List<AnalysisRow> analysisBatch = new ArrayList<>();
+        while (running) {
+            try {
+                TradeRow first = trades.poll(flushMs, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    tradeBatch.add(first);
+                    trades.drainTo(tradeBatch, batchSize - 1);
+                }
+                analyses.drainTo(analysisBatch, batchSize);
+            } catch (InterruptedException e) {
+                if (!running) break;
+            }
+            flush(tradeBatch, analysisBatch);
+        }
+        trades.drainTo(tradeBatch, batchSize);
+        analyses.drainTo(analysisBatch, batchSize);
+        flush(tradeBatch, analysisBatch);
+        log.info("[이력 저장] 종료");
+    }
+
+    // 실패한 묶음은 재시도하지 않고 버린다 (큐가 밀려 수집 메모리가 늘지 않도록)
+    private void flush(List<TradeRow> tradeBatch, List<AnalysisRow> analysisBatch) {
+        if (tradeBatch.isEmpty() && analysisBatch.isEmpty()) return;
+        try {
+            if (!schemaReady) {
+                repository.createSchema();
+                schemaReady = true;
+            }
+            if (!tradeBatch.isEmpty()) {
+                ensurePartitions(TradeHistoryRepository.TRADE_TABLE, tradeBatch, TradeRow::symbol, TradeRow::tradeTime);
+                writtenTrades.addAndGet(repository.copyTrades(tradeBatch));
+            }
+            if (!analysisBatch.isEmpty()) {
+                ensurePartitions(TradeHistoryRepository.ANALYSIS_TABLE, analysisBatch, AnalysisRow::symbol, AnalysisRow::createdAt);
+                repository.insertAnalyses(analysisBatch);
+                writtenAnalyses.addAndGet(analysisBatch.size());
+            }
+        } catch (Exception e) {
+            failedCount.addAndGet(tradeBatch.size() + analysisBatch.size());
+            log.error("[이력 저장] 체결 {}건, 분석 {}건 저장 실패: {}", tradeBatch.size(), analysisBatch.size(), e.getMessage());
+            schemaReady = false;
+            repository.forgetPartitions();
+        } finally {
+            tradeBatch.clear();
+            analysisBatch.clear();
+        }
+    }
+
+    private <T> void ensurePartitions(String table, List<T> rows,
+                                      Function<T, String> symbolOf,
+                                      ToLongFunction<T> timeOf) {
+        Set<String> seen = new HashSet<>();
+        for (T row : rows) {
+            String symbol = symbolOf.apply(row);
+            LocalDate day = TradeHistoryRepository.dayOf(timeOf.applyAsLong(row));
+            if (seen.add(day + symbol)) {
+                repository.ensurePartition(table, day, symbol);
+            }
+        }
+    }
+
+    public long getWrittenTrades() {
+        return writtenTrades.get();
+    }
+
+    public long getWrittenAnalyses() {
+        return writtenAnalyses.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public int getPendingCount() {
+        return trades == null ? 0 : trades.size() + analyses.size();
+    }
+
+    record TradeRow(String symbol, long aggTradeId, double price, double quantity, long tradeTime, boolean buyerMaker) {
+    }
+
+    record AnalysisRow(String symbol, long createdAt, Double buyVolume, Double sellVolume, Double diffVolume,
+                       boolean volatilityDetected, String payload) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.bitwayws.redis.handler;
+
+import com.example.bitwayws.dto.AggTradeSlot;
+import com.example.bitwayws.websocket.AggTradeParser;
+import com.example.bitwayws.websocket.AsciiCharSequence;
+
+import java.util.Arrays;
+import java.util.List;
+
+// 바이너리 구독 클라이언트용 체결 배치 프레임 (버전 1, 한 심볼)
+//   [version:u8][type:u8][symbolLength:u8][symbol:ascii][priceScale:u8][quantityScale:u8][count:varint]
+//   첫 체결  [aggTradeId:varint][tradeTime:varint][price:varint][quantity<<1 | buyerMaker:varint]
+//   이후     [aggTradeId 차이:zigzag][tradeTime 차이:zigzag][price 차이:zigzag][quantity<<1 | buyerMaker:varint]
+// price/quantity 는 배치 안에서 공통 소수 자릿수(scale)의 정수로 보낸다. 연속 체결은 대부분 차이가 작아 1~2바이트가 된다.
+// 인스턴스는 스레드 하나에서만 사용 (SymbolSubscribers 락 안에서 호출)
+class BinaryTradeFrameEncoder {
+
+    static final int VERSION = 1;
+    static final int TYPE_TRADES = 1;
+
+    private static final int MAX_SCALE = 8;
+    private static final long[] POW10 = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L};
+
+    private final AggTradeParser parser = new AggTradeParser();
+    private final AsciiCharSequence view = new AsciiCharSequence();
+
+    private AggTradeSlot[] trades = new AggTradeSlot[16];
+    private byte[] buffer = new byte[256];
+    private int position;
+
+    // 해석할 수 있는 체결이 없으면 null
+    byte[] encode(String symbol, List<byte[]> frames) {
+        int count = 0;
+        int priceScale = 0;
+        int quantityScale = 0;
+        for (byte[] frame : frames) {
+            AggTradeSlot trade = slot(count);
+            try {
+                if (!parser.parse(view.wrap(frame), trade)) continue;
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            priceScale = Math.max(priceScale, scaleOf(trade.getPrice()));
+            quantityScale = Math.max(quantityScale, scaleOf(trade.getQuantity()));
+            count++;
+        }
+        if (count == 0) return null;
+
+        position = 0;
+        writeByte(VERSION);
+        writeByte(TYPE_TRADES);
+        writeByte(symbol.length());
+        for (int i = 0; i < symbol.length(); i++) {
+            writeByte(symbol.charAt(i));
+        }
+        writeByte(priceScale);
+        writeByte(quantityScale);
+        writeVarLong(count);
+
+        long previousId = 0;
+        long previousTime = 0;
+        long previousPrice = 0;
+        for (int i = 0; i < count; i++) {
+            AggTradeSlot trade = trades[i];
+            long price = Math.round(trade.getPrice() * POW10[priceScale]);
+            long quantity = Math.round(trade.getQuantity() * POW10[quantityScale]);
+            if (i == 0) {
+                writeVarLong(trade.getAggTradeId());
+                writeVarLong(trade.getTimestamp());
+                writeVarLong(price);
+            } else {
+                writeVarLong(zigZag(trade.getAggTradeId() - previousId));
+                writeVarLong(zigZag(trade.getTimestamp() - previousTime));
+                writeVarLong(zigZag(price - previousPrice));
+            }
+            writeVarLong(quantity << 1 | (trade.isBuyerMaker() ? 1 : 0));
+            previousId = trade.getAggTradeId();
+            previousTime = trade.getTimestamp();
+            previousPrice = price;
+        }
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private AggTradeSlot slot(int index) {
+        if (index == trades.length) trades = Arrays.copyOf(trades, index * 2);
+        if (trades[index] == null) trades[index] = new AggTradeSlot();
+        return trades[index];
+    }
+
+    // 값을 정확히 나타내는 최소 소수 자릿수 (Binance 는 최대 8자리)
+    // 허용 오차는 상대값: 절대 오차로 비교하면 1e-6 보다 작은 수량이 0자리로 판정되어 0 으로 보내진다
+    static int scaleOf(double value) {
+        for (int scale = 0; scale < MAX_SCALE; scale++) {
+            double scaled = value * POW10[scale];
+            if (Math.abs(scaled - Math.rint(scaled)) < 1e-9 * Math.max(1, Math.abs(scaled))) return scale;
+        }
+        return MAX_SCALE;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        writeByte((int) value);
+    }
+
+    private void writeByte(int value) {
+        if (position == buffer.length) buffer = Arrays.copyOf(buffer, position * 2);
+        buffer[position++] = (byte) value;
+    }
+}
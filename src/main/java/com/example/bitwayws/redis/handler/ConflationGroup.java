@@ -0,0 +1,139 @@
+package com.example.bitwayws.redis.handler;
+
+import com.example.bitwayws.dto.AggTradeSlot;
+import com.example.bitwayws.dto.TradeOhlcvDeltaResDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.socket.TextMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+// 같은 심볼/형식/전송 간격을 요청한 세션 묶음
+// 체결은 그룹 단위로 한 번만 누적하고, 간격마다 프레임 하나를 만들어 모든 멤버가 공유한다.
+class ConflationGroup {
+
+    enum Format {
+        LATEST, // 마지막 체결 하나
+        BATCH,  // 간격 동안의 체결 배열
+        OHLCV   // 간격 동안의 OHLCV/거래량 요약
+    }
+
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private final String symbol;
+    private final Format format;
+    private final long intervalMs;
+    private final Set<CustomSession> members = new CopyOnWriteArraySet<>();
+
+    // guarded by this
+    private byte[] latest;
+    private final ArrayDeque<byte[]> batch = new ArrayDeque<>();
+    private long tradeCount;
+    private double open;
+    private double high;
+    private double low;
+    private double close;
+    private double volume;
+    private double buyVolume;
+    private double sellVolume;
+    private long startTime;
+    private long endTime;
+    private long nextDueAt;
+
+    ConflationGroup(String symbol, Format format, long intervalMs) {
+        this.symbol = symbol;
+        this.format = format;
+        this.intervalMs = intervalMs;
+    }
+
+    static String key(Format format, long intervalMs) {
+        return format.name() + ":" + intervalMs;
+    }
+
+    Set<CustomSession> getMembers() {
+        return members;
+    }
+
+    boolean needsParsedTrade() {
+        return format == Format.OHLCV;
+    }
+
+    // trade 는 OHLCV 형식일 때만 필요 (파싱 실패 시 null)
+    synchronized void offer(byte[] frame, AggTradeSlot trade) {
+        switch (format) {
+            case LATEST -> latest = frame;
+            case BATCH -> {
+                if (batch.size() == MAX_BATCH_SIZE) batch.pollFirst();
+                batch.addLast(frame);
+            }
+            case OHLCV -> {
+                if (trade == null) return;
+                double price = trade.getPrice();
+                if (tradeCount == 0) {
+                    open = high = low = price;
+                    startTime = trade.getTimestamp();
+                }
+                high = Math.max(high, price);
+                low = Math.min(low, price);
+                close = price;
+                volume += trade.getQuantity();
+                if (trade.isBuyerMaker()) sellVolume += price * trade.getQuantity();
+                else buyVolume += price * trade.getQuantity();
+                endTime = trade.getTimestamp();
+            }
+        }
+        tradeCount++;
+    }
+
+    // 전송 시점이 되었고 새 데이터가 있으면 공유 프레임을 만들어 반환, 아니면 null
+    synchronized TextMessage poll(long now, ObjectMapper objectMapper) throws Exception {
+        if (tradeCount == 0 || now < nextDueAt) return null;
+        nextDueAt = now + intervalMs;
+
+        byte[] payload = switch (format) {
+            case LATEST -> latest;
+            case BATCH -> joinBatch();
+            case OHLCV -> objectMapper.writeValueAsBytes(TradeOhlcvDeltaResDto.builder()
+                    .symbol(symbol.toUpperCase())
+                    .open(open)
+                    .high(high)
+                    .low(low)
+                    .close(close)
+                    .volume(volume)
+                    .buyVolume(buyVolume)
+                    .sellVolume(sellVolume)
+                    .tradeCount(tradeCount)
+                    .startTime(startTime)
+                    .endTime(endTime)
+                    .build());
+        };
+        reset();
+        return new TextMessage(payload);
+    }
+
+    private byte[] joinBatch() {
+        int size = 2 + batch.size();
+        for (byte[] frame : batch) size += frame.length;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+        out.write('[');
+        boolean first = true;
+        for (byte[] frame : batch) {
+            if (!first) out.write(',');
+            out.writeBytes(frame);
+            first = false;
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    private void reset() {
+        latest = null;
+        batch.clear();
+        tradeCount = 0;
+        volume = 0;
+        buyVolume = 0;
+        sellVolume = 0;
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.bitwayws.redis.handler;
+
+import com.example.bitwayws.dto.WsSessionStatsResDto;
+import jakarta.websocket.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 세션별 outbound 큐
+// 브로드캐스트 스레드는 큐에 넣기만 하고, 실제 전송은 공유 writer 풀에서 세션당 한 스레드씩 순서대로 수행한다.
+// 느린 클라이언트는 자기 큐만 쌓이며 다른 세션의 전송 지연에 영향을 주지 않는다.
+// 전송 시간 제한은 핸들러의 watchdog 이 주기적으로 checkSendTimeout 을 불러 강제한다 (enqueue 가 없어도 끊긴 피어를 정리).
+@Slf4j
+class CustomSession {
+
+    private final WebSocketSession session;
+    private final Set<String> symbols = ConcurrentHashMap.newKeySet();
+    // 구독 스냅샷과 실시간 체결의 이음매 (심볼 -> 커서). 구독 직후 첫 실시간 체결까지만 존재한다
+    private final Map<String, SnapshotCursor> snapshotCursors = new ConcurrentHashMap<>();
+    private final WsFanoutExecutor writer;
+    private final int bufferSizeLimit;
+    private final long sendTimeLimitMs;
+    private final OverflowPolicy overflowPolicy;
+    private final Encoding encoding;
+
+    // guarded by this
+    private final ArrayDeque<WebSocketMessage<?>> queue = new ArrayDeque<>();
+    private int queuedBytes;
+    private int maxQueueDepth;
+
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong sentBytes = new AtomicLong();
+    private volatile long sendStartedAt;
+    private volatile long lastSendLatencyMs;
+
+    CustomSession(WebSocketSession session, WsFanoutExecutor writer,
+                  int bufferSizeLimit, long sendTimeLimitMs, OverflowPolicy overflowPolicy, Encoding encoding) {
+        this.session = session;
+        this.writer = writer;
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.overflowPolicy = overflowPolicy;
+        this.encoding = encoding;
+        applyBlockingSendTimeout();
+    }
+
+    // Tomcat 의 blocking send 대기 시간도 같은 한도로 맞춰, 종료 프레임 전송이나 막힌 write 가 기본값(20초)까지 붙잡지 않게 한다
+    private void applyBlockingSendTimeout() {
+        if (!(session instanceof NativeWebSocketSession nativeSession)) return;
+        Session container = nativeSession.getNativeSession(Session.class);
+        if (container != null) {
+            container.getUserProperties().put("org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT", sendTimeLimitMs);
+        }
+    }
+
+    public boolean isOpen() {
+        return !closed.get() && session.isOpen();
+    }
+
+    public String getId() {
+        return session.getId();
+    }
+
+    public Encoding getEncoding() {
+        return encoding;
+    }
+
+    // 구독 중인 심볼 (SymbolSubscriptionRegistry 가 관리)
+    public Set<String> getSymbols() {
+        return symbols;
+    }
+
+    SnapshotCursor getSnapshotCursor(String symbol) {
+        return snapshotCursors.isEmpty() ? null : snapshotCursors.get(symbol);
+    }
+
+    void putSnapshotCursor(String symbol, SnapshotCursor cursor) {
+        snapshotCursors.put(symbol, cursor);
+    }
+
+    void removeSnapshotCursor(String symbol, SnapshotCursor cursor) {
+        snapshotCursors.remove(symbol, cursor);
+    }
+
+    void removeSnapshotCursor(String symbol) {
+        snapshotCursors.remove(symbol);
+    }
+
+    // 큐에 넣고 writer 를 깨운다. 호출 스레드에서 전송하지 않는다
+    public void enqueue(WebSocketMessage<?> message) {
+        if (!isOpen()) return;
+
+        if (checkSendTimeout(System.currentTimeMillis())) return;
+
+        int size = message.getPayloadLength();
+        boolean overflow = false;
+        synchronized (this) {
+            if (queuedBytes + size > bufferSizeLimit && !queue.isEmpty()) {
+                switch (overflowPolicy) {
+                    case DROP_OLDEST -> {
+                        while (!queue.isEmpty() && queuedBytes + size > bufferSizeLimit) {
+                            queuedBytes -= queue.pollFirst().getPayloadLength();
+                            droppedCount.incrementAndGet();
+                        }
+                    }
+                    case CONFLATE -> {
+                        droppedCount.addAndGet(queue.size());
+                        queue.clear();
+                        queuedBytes = 0;
+                    }
+                    case DISCONNECT -> overflow = true;
+                }
+            }
+            if (!overflow) {
+                queue.addLast(message);
+                queuedBytes += size;
+                maxQueueDepth = Math.max(maxQueueDepth, queue.size());
+            }
+        }
+        if (overflow) {
+            disconnect("버퍼 크기 제한 초과 (" + bufferSizeLimit + " bytes)");
+            return;
+        }
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (!draining.compareAndSet(false, true)) return;
+        try {
+            writer.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // 다음 enqueue 때 다시 시도 (메시지는 큐에 남아 있음)
+            draining.set(false);
+            log.warn("WebSocket writer 작업 거부됨: {}", getId());
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            WebSocketMessage<?> message;
+            synchronized (this) {
+                message = queue.pollFirst();
+                if (message == null) {
+                    draining.set(false);
+                    return;
+                }
+                queuedBytes -= message.getPayloadLength();
+            }
+            if (!send(message)) {
+                return;
+            }
+        }
+    }
+
+    private boolean send(WebSocketMessage<?> message) {
+        if (!isOpen()) {
+            discardQueue();
+            return false;
+        }
+        long start = System.nanoTime();
+        sendStartedAt = System.currentTimeMillis();
+        try {
+            session.sendMessage(message);
+            sentCount.incrementAndGet();
+            sentBytes.addAndGet(message.getPayloadLength());
+            return true;
+        } catch (Exception e) {
+            log.error("전송 실패: " + getId(), e);
+            disconnect("전송 실패");
+            return false;
+        } finally {
+            sendStartedAt = 0;
+            long elapsed = System.nanoTime() - start;
+            lastSendLatencyMs = elapsed / 1_000_000;
+            writer.recordSend(elapsed);
+        }
+    }
+
+    // 진행 중인 전송이 제한 시간을 넘겼으면 세션을 닫는다. 소켓이 닫히면 막혀 있던 writer 스레드도 예외로 풀려난다
+    boolean checkSendTimeout(long nowMs) {
+        long startedAt = sendStartedAt;
+        if (startedAt == 0 || nowMs - startedAt <= sendTimeLimitMs) return false;
+        disconnect("전송 시간 제한 초과 (" + sendTimeLimitMs + "ms)");
+        return true;
+    }
+
+    public void close() {
+        closed.set(true);
+        discardQueue();
+    }
+
+    private void disconnect(String reason) {
+        if (!closed.compareAndSet(false, true)) return;
+        log.warn("느린 WebSocket 세션 종료: {}, 사유: {}", getId(), reason);
+        discardQueue();
+        try {
+            session.close(CloseStatus.SESSION_NOT_RELIABLE.withReason(reason));
+        } catch (Exception e) {
+            log.debug("세션 종료 실패: {}", getId(), e);
+        }
+    }
+
+    private void discardQueue() {
+        synchronized (this) {
+            droppedCount.addAndGet(queue.size());
+            queue.clear();
+            queuedBytes = 0;
+            draining.set(false);
+        }
+    }
+
+    public synchronized WsSessionStatsResDto getStats() {
+        return WsSessionStatsResDto.builder()
+                .sessionId(getId())
+                .encoding(encoding.name())
+                .symbols(Set.copyOf(symbols))
+                .queuedMessages(queue.size())
+                .queuedBytes(queuedBytes)
+                .maxQueueDepth(maxQueueDepth)
+                .sentCount(sentCount.get())
+                .droppedCount(droppedCount.get())
+                .sentBytes(sentBytes.get())
+                .lastSendLatencyMs(lastSendLatencyMs)
+                .build();
+    }
+
+    // 체결 프레임 형식. 분석/스냅샷/conflation 등 나머지 메시지는 두 형식 모두 JSON 텍스트 프레임
+    public enum Encoding {
+        JSON,   // aggTrade JSON 텍스트 프레임 (permessage-deflate 는 컨테이너가 협상)
+        BINARY; // 체결 배치 바이너리 프레임 (BinaryTradeFrameEncoder)
+
+        public static final String JSON_SUBPROTOCOL = "bitway.json.v1";
+        public static final String BINARY_SUBPROTOCOL = "bitway.bin.v1";
+    }
+
+    public enum OverflowPolicy {
+        DROP_OLDEST,  // 오래된 메시지부터 버림
+        CONFLATE,     // 대기 중인 메시지를 모두 버리고 최신 메시지만 유지
+        DISCONNECT    // 세션 종료
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.bitwayws.redis.handler;
+
+import com.example.bitwayws.dto.AggTradeSlot;
+import com.example.bitwayws.websocket.AggTradeParser;
+import com.example.bitwayws.websocket.AsciiCharSequence;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// 한 세션의 한 심볼에 대해 구독 스냅샷과 실시간 체결을 잇는다 (호출 측이 이 객체로 동기화)
+// 스냅샷을 만드는 동안 온 실시간 체결은 보류하고, 스냅샷 이후에는 lastTradeId 이하(스냅샷에 포함)를 버리며
+// 건너뛴 aggTradeId 구간은 gapFiller 로 채운다. 스냅샷 뒤 첫 실시간 체결을 이어 붙이면 joined 가 되어 세션에서 제거된다.
+final class SnapshotCursor {
+
+    interface GapFiller {
+        // (afterId, beforeId) 사이 체결 프레임, 오래된 순
+        List<byte[]> trades(long afterId, long beforeId);
+    }
+
+    private final AggTradeParser parser = new AggTradeParser();
+    private final AsciiCharSequence view = new AsciiCharSequence();
+    private final AggTradeSlot trade = new AggTradeSlot();
+
+    // null 이면 스냅샷을 이미 보냄
+    private List<byte[]> held = new ArrayList<>();
+    private long lastTradeId = -1;
+    private boolean joined;
+
+    boolean isPending() {
+        return held != null;
+    }
+
+    boolean isJoined() {
+        return joined;
+    }
+
+    void hold(List<byte[]> frames) {
+        held.addAll(frames);
+    }
+
+    // 스냅샷을 큐에 넣은 직후 호출. 보류했던 프레임을 돌려준다
+    List<byte[]> release(long snapshotLastTradeId) {
+        List<byte[]> frames = held;
+        held = null;
+        lastTradeId = snapshotLastTradeId;
+        return frames;
+    }
+
+    // 이 세션에 보낼 프레임: 중복 제거 + 구간 채움
+    List<byte[]> advance(List<byte[]> frames, GapFiller gapFiller) {
+        List<byte[]> out = new ArrayList<>(frames.size());
+        for (byte[] frame : frames) {
+            long id = aggTradeIdOf(frame);
+            if (id < 0) {
+                out.add(frame);
+                continue;
+            }
+            if (id <= lastTradeId) continue; // 스냅샷에 이미 포함
+            if (lastTradeId >= 0 && id > lastTradeId + 1) {
+                out.addAll(gapFiller.trades(lastTradeId, id));
+            }
+            out.add(frame);
+            lastTradeId = id;
+            joined = true;
+        }
+        return out;
+    }
+
+    private long aggTradeIdOf(byte[] frame) {
+        try {
+            return parser.parse(view.wrap(frame), trade) ? trade.getAggTradeId() : -1;
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+}
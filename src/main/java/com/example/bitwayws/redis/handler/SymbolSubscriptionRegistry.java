@@ -0,0 +1,186 @@
+package com.example.bitwayws.redis.handler;
+
+import com.example.bitwayws.dto.AggTradeSlot;
+import com.example.bitwayws.websocket.AggTradeParser;
+import com.example.bitwayws.websocket.AsciiCharSequence;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+
+// 심볼 -> 구독 세션 인덱스
+// 브로드캐스트는 해당 심볼 구독자만 순회하고(읽기 위주라 copy-on-write), 구독 변경은 연결/해제/구독 메시지 때만 일어난다.
+// 실시간 구독자와 conflation 그룹(같은 형식/간격을 요청한 세션 묶음)을 심볼별로 함께 관리한다.
+@Component
+public class SymbolSubscriptionRegistry {
+
+    private final Map<String, SymbolSubscribers> subscribers = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // 노드의 첫 구독자 / 마지막 구독 해제 알림 (Redis 채널 구독 관리용)
+    // 동시 변경 시 알림 순서가 바뀔 수 있으므로 리스너는 getSubscriberCount 로 실제 상태를 확인해야 한다
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    void subscribe(CustomSession session, String symbol) {
+        subscribe(session, symbol, null, 0);
+    }
+
+    // format 이 null 이면 실시간, 아니면 intervalMs 마다 conflation 전송
+    void subscribe(CustomSession session, String symbol, ConflationGroup.Format format, long intervalMs) {
+        String key = normalize(symbol);
+        remove(session, key); // 전송 방식 변경 시 기존 구독 제거
+        // 첫 구독 여부는 compute 안에서 판단한다 (밖에서 확인하면 동시에 마지막 해제가 끼어들 때 알림이 빠진다)
+        boolean[] created = new boolean[1];
+        subscribers.compute(key, (k, subs) -> {
+            if (subs == null) {
+                subs = new SymbolSubscribers(k);
+                created[0] = true;
+            }
+            if (format == null) {
+                subs.realtime.add(session);
+            } else {
+                subs.groups.computeIfAbsent(ConflationGroup.key(format, intervalMs),
+                        g -> new ConflationGroup(k, format, intervalMs)).getMembers().add(session);
+            }
+            return subs;
+        });
+        session.getSymbols().add(key);
+        if (created[0]) {
+            listeners.forEach(listener -> listener.onFirstSubscriber(key));
+        }
+    }
+
+    void unsubscribe(CustomSession session, String symbol) {
+        String key = normalize(symbol);
+        if (remove(session, key)) {
+            listeners.forEach(listener -> listener.onLastUnsubscribed(key));
+        }
+    }
+
+    // 심볼의 마지막 구독자가 빠졌으면 true
+    private boolean remove(CustomSession session, String key) {
+        session.getSymbols().remove(key);
+        boolean[] emptied = new boolean[1];
+        subscribers.computeIfPresent(key, (k, subs) -> {
+            subs.realtime.remove(session);
+            subs.groups.values().removeIf(group -> {
+                group.getMembers().remove(session);
+                return group.getMembers().isEmpty();
+            });
+            emptied[0] = subs.isEmpty();
+            return emptied[0] ? null : subs;
+        });
+        return emptied[0];
+    }
+
+    void unsubscribeAll(CustomSession session) {
+        for (String symbol : session.getSymbols()) {
+            unsubscribe(session, symbol);
+        }
+    }
+
+    SymbolSubscribers get(String symbol) {
+        return subscribers.get(normalize(symbol));
+    }
+
+    void forEachConflationGroup(Consumer<ConflationGroup> action) {
+        for (SymbolSubscribers subs : subscribers.values()) {
+            subs.groups.values().forEach(action);
+        }
+    }
+
+    public Set<String> getSubscribedSymbols() {
+        return Collections.unmodifiableSet(subscribers.keySet());
+    }
+
+    public int getSubscriberCount(String symbol) {
+        SymbolSubscribers subs = subscribers.get(normalize(symbol));
+        if (subs == null) return 0;
+        return subs.realtime.size() + subs.groups.values().stream().mapToInt(g -> g.getMembers().size()).sum();
+    }
+
+    static String normalize(String symbol) {
+        return symbol.trim().toLowerCase();
+    }
+
+    public interface Listener {
+        void onFirstSubscriber(String symbol);
+
+        void onLastUnsubscribed(String symbol);
+    }
+
+    // 한 심볼의 구독자 (실시간 세션 + conflation 그룹)
+    static final class SymbolSubscribers {
+        private final String symbol;
+        private final Set<CustomSession> realtime = new CopyOnWriteArraySet<>();
+        private final Map<String, ConflationGroup> groups = new ConcurrentHashMap<>();
+
+        // conflation(ohlcv) 용 파서. 심볼당 메시지마다 한 번만 파싱한다 (guarded by this)
+        private final AggTradeParser parser = new AggTradeParser();
+        private final AsciiCharSequence view = new AsciiCharSequence();
+        private final AggTradeSlot trade = new AggTradeSlot();
+
+        // 바이너리 세션용 체결 프레임 인코더 (guarded by this)
+        private final BinaryTradeFrameEncoder binaryEncoder = new BinaryTradeFrameEncoder();
+
+        private SymbolSubscribers(String symbol) {
+            this.symbol = symbol;
+        }
+
+        String getSymbol() {
+            return symbol;
+        }
+
+        Set<CustomSession> getRealtime() {
+            return realtime;
+        }
+
+        Collection<ConflationGroup> getGroups() {
+            return groups.values();
+        }
+
+        // 실시간/conflation 구분 없이 모든 구독 세션에 적용
+        void forEachSession(Consumer<CustomSession> action) {
+            realtime.forEach(action);
+            for (ConflationGroup group : groups.values()) {
+                group.getMembers().forEach(action);
+            }
+        }
+
+        // 같은 Redis 메시지의 체결들을 바이너리 프레임 하나로 (해석할 수 없으면 null)
+        synchronized byte[] encodeBinary(List<byte[]> frames) {
+            return binaryEncoder.encode(symbol, frames);
+        }
+
+        // 체결 프레임을 conflation 그룹들에 누적
+        synchronized void offerToGroups(byte[] frame) {
+            if (groups.isEmpty()) return;
+            boolean parsed = false;
+            AggTradeSlot parsedTrade = null;
+            for (ConflationGroup group : groups.values()) {
+                if (group.needsParsedTrade() && !parsed) {
+                    parsed = true;
+                    try {
+                        if (parser.parse(view.wrap(frame), trade)) parsedTrade = trade;
+                    } catch (IllegalArgumentException e) {
+                        parsedTrade = null;
+                    }
+                }
+                group.offer(frame, parsedTrade);
+            }
+        }
+
+        private boolean isEmpty() {
+            return realtime.isEmpty() && groups.isEmpty();
+        }
+    }
+}
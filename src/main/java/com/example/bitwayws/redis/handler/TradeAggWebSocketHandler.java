@@ -1,10 +1,23 @@
 package com.example.bitwayws.redis.handler;
 
+import com.example.bitwayws.dto.TradeAlertStatsResDto;
+import com.example.bitwayws.dto.WsErrorResDto;
+import com.example.bitwayws.dto.WsFanoutStatsResDto;
+import com.example.bitwayws.dto.WsSessionStatsResDto;
+import com.example.bitwayws.dto.WsSubscribeReqDto;
+import com.example.bitwayws.redis.service.TradeSnapshotService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.SubProtocolCapable;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.TextMessage;
@@ -12,122 +25,450 @@ import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.util.UriComponents;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class TradeAggWebSocketHandler extends TextWebSocketHandler {
+public class TradeAggWebSocketHandler extends TextWebSocketHandler implements SubProtocolCapable {
 
     private final ObjectMapper objectMapper;
+    private final SymbolSubscriptionRegistry subscriptionRegistry;
+    private final WsFanoutExecutor fanoutExecutor;
+    private final TradeAlertIndex alertIndex;
+    private final TradeSnapshotService snapshotService;
 
     private final Map<String, CustomSession> sessions = new ConcurrentHashMap<>();
 
+    // 세션별 전송 대기 버퍼 한도 (bytes)
+    @Value("${bitway.ws.session.buffer-size-limit:524288}")
+    private int bufferSizeLimit;
+
+    // 한 메시지 전송이 이 시간을 넘기면 세션 종료 (ms)
+    @Value("${bitway.ws.session.send-time-limit-ms:5000}")
+    private long sendTimeLimitMs;
+
+    // 버퍼 초과 시 정책: DROP_OLDEST | CONFLATE | DISCONNECT
+    @Value("${bitway.ws.session.overflow-policy:DROP_OLDEST}")
+    private CustomSession.OverflowPolicy overflowPolicy;
+
+    // conflation 전송 검사 주기 (ms)
+    @Value("${bitway.ws.conflation.tick-ms:20}")
+    private long conflationTickMs;
+
+    // conflation 요청에 maxRate 가 없을 때 초당 전송 횟수
+    @Value("${bitway.ws.conflation.default-max-rate:5}")
+    private int defaultMaxRate;
+
+    // 허용하는 최대 maxRate
+    @Value("${bitway.ws.conflation.max-rate-limit:50}")
+    private int maxRateLimit;
+
+    // 구독 직후 상태 스냅샷(분석/윈도우/캔들/최근 체결) 전송 여부. 클라이언트는 snapshot=false 로 끌 수 있다
+    @Value("${bitway.ws.snapshot.on-subscribe:true}")
+    private boolean snapshotOnSubscribe;
+
+    // 알림 규칙은 체결을 직접 처리하는 수집 노드에서만 평가된다
+    @Value("${bitway.ingest.enabled:true}")
+    private boolean ingestEnabled;
+
+    private ScheduledExecutorService conflationScheduler;
+    // 전송 시간 제한 검사. 막힌 세션 종료가 conflation 틱을 늦추지 않도록 별도 스레드
+    private ScheduledExecutorService sendWatchdog;
+
+    @PostConstruct
+    public void init() {
+        conflationScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ws-conflation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        conflationScheduler.scheduleAtFixedRate(this::flushConflated, conflationTickMs, conflationTickMs, TimeUnit.MILLISECONDS);
+
+        sendWatchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ws-send-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long watchdogMs = Math.max(100, Math.min(1000, sendTimeLimitMs / 2));
+        sendWatchdog.scheduleWithFixedDelay(this::checkSendTimeouts, watchdogMs, watchdogMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void checkSendTimeouts() {
+        long now = System.currentTimeMillis();
+        for (CustomSession session : sessions.values()) {
+            try {
+                session.checkSendTimeout(now);
+            } catch (Exception e) {
+                log.warn("전송 시간 검사 실패: {}", session.getId(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        conflationScheduler.shutdownNow();
+        sendWatchdog.shutdownNow();
+    }
+
+    // Sec-WebSocket-Protocol 협상 (bitway.bin.v1 | bitway.json.v1). 요청하지 않은 클라이언트는 ?encoding= 또는 JSON
+    @Override
+    public List<String> getSubProtocols() {
+        return List.of(CustomSession.Encoding.BINARY_SUBPROTOCOL, CustomSession.Encoding.JSON_SUBPROTOCOL);
+    }
+
     @Override
     public void afterConnectionEstablished(WebSocketSession session) {
         String sessionId = session.getId();
         UriComponents uriComponents = UriComponentsBuilder.fromUri(session.getUri()).build();
-        String symbol = uriComponents.getQueryParams().getFirst("symbol");
-        sessions.put(sessionId, new CustomSession(session, symbol));
-        log.info("WebSocket 연결됨: {}, symbol: {}", sessionId, symbol);
+        MultiValueMap<String, String> params = uriComponents.getQueryParams();
+        CustomSession customSession = new CustomSession(session, fanoutExecutor,
+                bufferSizeLimit, sendTimeLimitMs, overflowPolicy, resolveEncoding(session, params.getFirst("encoding")));
+        sessions.put(sessionId, customSession);
+
+        // ?symbol=btcusdt 또는 ?symbol=btcusdt,ethusdt (&mode=conflate&maxRate=5&format=latest|batch|ohlcv)
+        // 스냅샷 체결 수: &history=100 또는 &since=<aggTradeId> (&snapshot=false 면 생략), 체결 형식: &encoding=json|binary
+        List<String> symbolParams = params.getOrDefault("symbol", List.of());
+        String maxRate = params.getFirst("maxRate");
+        List<String> symbols = parseSymbols(symbolParams);
+        String snapshot = params.getFirst("snapshot");
+        subscribe(customSession, symbols, params.getFirst("mode"), parseInteger(maxRate), params.getFirst("format"),
+                snapshot == null ? null : !"false".equalsIgnoreCase(snapshot.trim()),
+                parseInteger(params.getFirst("history")), parseLong(params.getFirst("since")));
+        log.info("WebSocket 연결됨: {}, symbols: {}, encoding: {}", sessionId, customSession.getSymbols(), customSession.getEncoding());
     }
 
+    // {"action":"subscribe"|"unsubscribe","symbols":[...]} 로 실행 중 구독 변경, "alert"|"unalert" 로 알림 규칙 등록/해제
     @Override
     protected void handleTextMessage(WebSocketSession session, TextMessage message) {
         String sessionId = session.getId();
         log.info("수신 메시지 [{}]: {}", sessionId, message.getPayload());
+
+        CustomSession customSession = sessions.get(sessionId);
+        if (customSession == null) return;
+
+        WsSubscribeReqDto request;
+        try {
+            request = objectMapper.readValue(message.getPayload(), WsSubscribeReqDto.class);
+        } catch (Exception e) {
+            log.warn("구독 메시지 파싱 실패 [{}]: {}", sessionId, e.getMessage());
+            return;
+        }
+        List<String> symbols = parseSymbols(request.getSymbols() == null ? List.of() : request.getSymbols());
+        if ("subscribe".equalsIgnoreCase(request.getAction())) {
+            subscribe(customSession, symbols, request.getMode(), request.getMaxRate(), request.getFormat(),
+                    request.getSnapshot(), request.getHistory(), request.getSince());
+        } else if ("unsubscribe".equalsIgnoreCase(request.getAction())) {
+            symbols.forEach(symbol -> {
+                subscriptionRegistry.unsubscribe(customSession, symbol);
+                customSession.removeSnapshotCursor(symbol);
+            });
+        } else if ("alert".equalsIgnoreCase(request.getAction())) {
+            if (!ingestEnabled) {
+                sendError(customSession, request.getId(), "이 노드에서는 알림을 사용할 수 없습니다 (fan-out 노드)");
+                return;
+            }
+            try {
+                alertIndex.register(customSession, request.getId(), symbols, request.getMinNotional(),
+                        request.getSide(), request.getImbalance(), request.getWindow());
+                log.info("알림 규칙 등록 [{}]: id={}, symbols={}", sessionId, request.getId(), symbols);
+            } catch (IllegalArgumentException e) {
+                log.warn("알림 규칙 거부 [{}]: {}", sessionId, e.getMessage());
+                sendError(customSession, request.getId(), e.getMessage());
+            }
+            return;
+        } else if ("unalert".equalsIgnoreCase(request.getAction())) {
+            alertIndex.unregister(customSession, request.getId());
+            log.info("알림 규칙 해제 [{}]: id={}", sessionId, request.getId());
+            return;
+        } else {
+            log.warn("알 수 없는 action [{}]: {}", sessionId, request.getAction());
+            return;
+        }
+        log.info("구독 변경 [{}]: {}", sessionId, customSession.getSymbols());
+    }
+
+    // 요청을 보낸 세션에만 {"type":"error","id":..,"reason":..} 를 보낸다
+    private void sendError(CustomSession session, String id, String reason) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(WsErrorResDto.builder().id(id).reason(reason).build());
+            enqueueOrRemove(session, new TextMessage(json));
+        } catch (Exception e) {
+            log.error("WebSocket 직렬화 실패", e);
+        }
     }
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
         String sessionId = session.getId();
-        sessions.remove(sessionId);
+        CustomSession removed = sessions.remove(sessionId);
+        if (removed != null) {
+            remove(removed);
+        }
         log.info("WebSocket 종료됨: {}, code={}, reason={}", sessionId, status.getCode(), status.getReason());
     }
 
+    // snapshot: null 이면 설정값, history/since 를 지정하면 snapshot=false 가 아닌 한 스냅샷을 보낸다
+    private void subscribe(CustomSession session, List<String> symbols, String mode, Integer maxRate, String format,
+                           Boolean snapshot, Integer history, Long since) {
+        boolean sendSnapshot = snapshot != null ? snapshot : snapshotOnSubscribe || history != null || since != null;
+        boolean conflate = "conflate".equalsIgnoreCase(mode);
+        ConflationGroup.Format conflationFormat = conflate ? parseFormat(format) : null;
+        int rate = Math.max(1, Math.min(maxRate == null ? defaultMaxRate : maxRate, maxRateLimit));
+        long intervalMs = Math.max(conflationTickMs, 1000L / rate);
+
+        for (String symbol : symbols) {
+            // 실시간 구독은 구독 등록 전에 커서를 걸어, 스냅샷을 만드는 동안 온 체결을 보류한다
+            SnapshotCursor cursor = sendSnapshot && !conflate ? new SnapshotCursor() : null;
+            if (cursor != null) session.putSnapshotCursor(symbol, cursor);
+            if (conflate) {
+                subscriptionRegistry.subscribe(session, symbol, conflationFormat, intervalMs);
+            } else {
+                subscriptionRegistry.subscribe(session, symbol);
+            }
+            if (sendSnapshot) sendSnapshot(session, symbol, cursor, history, since);
+        }
+    }
+
+    // 스냅샷을 큐에 넣은 뒤 보류했던 실시간 체결을 이어 붙인다. 커서 락 안에서 처리해 사이에 다른 체결이 끼지 않는다
+    private void sendSnapshot(CustomSession session, String symbol, SnapshotCursor cursor, Integer history, Long since) {
+        TradeSnapshotService.Snapshot snapshot = null;
+        try {
+            if (symbol.chars().allMatch(Character::isLetterOrDigit)) {
+                snapshot = snapshotService.snapshot(symbol, history, since);
+            }
+        } catch (Exception e) {
+            log.warn("스냅샷 생성 실패 [{}] {}: {}", session.getId(), symbol, e.getMessage());
+        }
+        if (cursor == null) {
+            if (snapshot != null) enqueueOrRemove(session, new TextMessage(snapshot.frame()));
+            return;
+        }
+        synchronized (cursor) {
+            if (snapshot != null) enqueueOrRemove(session, new TextMessage(snapshot.frame()));
+            List<byte[]> held = cursor.release(snapshot == null ? -1 : snapshot.lastTradeId());
+            sendCaughtUp(session, symbol, cursor, held);
+        }
+    }
+
+    // 커서가 걸린 세션: 보류 중이면 쌓고, 아니면 중복 제거/구간 채움 후 전송. 이어지면 커서를 뗀다
+    private void catchUp(CustomSession session, String symbol, SnapshotCursor cursor, List<byte[]> frames) {
+        synchronized (cursor) {
+            if (cursor.isPending()) {
+                cursor.hold(frames);
+                return;
+            }
+            sendCaughtUp(session, symbol, cursor, frames);
+        }
+    }
+
+    private void sendCaughtUp(CustomSession session, String symbol, SnapshotCursor cursor, List<byte[]> frames) {
+        List<byte[]> out = cursor.advance(frames, (afterId, beforeId) -> snapshotService.tradesBetween(symbol, afterId, beforeId));
+        if (cursor.isJoined()) session.removeSnapshotCursor(symbol, cursor);
+        if (out.isEmpty()) return;
+        SymbolSubscriptionRegistry.SymbolSubscribers subs = subscriptionRegistry.get(symbol);
+        if (session.getEncoding() == CustomSession.Encoding.BINARY && subs != null) {
+            byte[] encoded = subs.encodeBinary(out);
+            if (encoded != null) {
+                enqueueOrRemove(session, new BinaryMessage(encoded));
+                return;
+            }
+        }
+        for (byte[] frame : out) {
+            enqueueOrRemove(session, new TextMessage(frame));
+        }
+    }
+
+    // 협상된 서브프로토콜이 우선, 없으면 쿼리 파라미터
+    private static CustomSession.Encoding resolveEncoding(WebSocketSession session, String encoding) {
+        String protocol = session.getAcceptedProtocol();
+        if (CustomSession.Encoding.BINARY_SUBPROTOCOL.equals(protocol)) return CustomSession.Encoding.BINARY;
+        if (CustomSession.Encoding.JSON_SUBPROTOCOL.equals(protocol)) return CustomSession.Encoding.JSON;
+        return "binary".equalsIgnoreCase(encoding == null ? null : encoding.trim())
+                ? CustomSession.Encoding.BINARY
+                : CustomSession.Encoding.JSON;
+    }
+
+    private static ConflationGroup.Format parseFormat(String format) {
+        if (format == null) return ConflationGroup.Format.LATEST;
+        try {
+            return ConflationGroup.Format.valueOf(format.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn("알 수 없는 conflation format: {}, latest 로 전송", format);
+            return ConflationGroup.Format.LATEST;
+        }
+    }
+
+    private static Integer parseInteger(String value) {
+        if (value == null) return null;
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Long parseLong(String value) {
+        if (value == null) return null;
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void remove(CustomSession session) {
+        sessions.remove(session.getId());
+        subscriptionRegistry.unsubscribeAll(session);
+        alertIndex.unregisterAll(session);
+        session.close();
+    }
+
+    private static List<String> parseSymbols(List<String> values) {
+        return values.stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(String::trim)
+                .filter(symbol -> !symbol.isEmpty())
+                .map(SymbolSubscriptionRegistry::normalize)
+                .distinct()
+                .toList();
+    }
+
     public void broadcast(Object payload) {
-        String json;
+        byte[] json;
         try {
-            json = objectMapper.writeValueAsString(payload);
+            json = objectMapper.writeValueAsBytes(payload);
         } catch (Exception e) {
             log.error("WebSocket 직렬화 실패", e);
             return;
         }
-
-        ExecutorService executor = Executors.newCachedThreadPool();
-        sessions.values().forEach(session -> {
-            executor.submit(() -> {
-                try {
-                    if (session.isOpen()) {
-                        session.sendMessage(new TextMessage(json));
-                    } else {
-                        sessions.remove(session.getId());
-                    }
-                } catch (Exception e) {
-                    log.error("메시지 전송 실패", e);
-                    sessions.remove(session.getId());
-                }
-            });
-        });
+        broadcastFrame(json);
     }
 
     public void broadcastToSymbol(String symbol, Object payload) {
-        String json;
+        byte[] json;
         try {
-            json = objectMapper.writeValueAsString(payload);
+            json = objectMapper.writeValueAsBytes(payload);
         } catch (Exception e) {
             log.error("WebSocket 직렬화 실패", e);
             return;
         }
+        broadcastFrameToSymbol(symbol, json);
+    }
+
+    // 이미 인코딩된 UTF-8 JSON 을 프레임 하나로 만들어 모든 세션이 공유한다
+    public void broadcastFrame(byte[] json) {
+        TextMessage frame = new TextMessage(json);
+        sessions.values().forEach(session -> enqueueOrRemove(session, frame));
+    }
+
+    // 심볼 구독자 전체(전송 방식 무관)에게 프레임 하나를 공유
+    public void broadcastFrameToSymbol(String symbol, byte[] json) {
+        SymbolSubscriptionRegistry.SymbolSubscribers subs = subscriptionRegistry.get(symbol);
+        if (subs == null) return;
+        TextMessage frame = new TextMessage(json);
+        subs.forEachSession(session -> enqueueOrRemove(session, frame));
+    }
+
+    public void broadcastTradeFrame(String symbol, byte[] json) {
+        broadcastTradeFrames(symbol, List.of(json));
+    }
+
+    // 같은 Redis 메시지로 받은 체결들: 실시간 구독자에게는 즉시, conflation 그룹에는 누적 후 간격마다 전송
+    // 형식별 프레임은 처음 필요할 때 한 번만 만들어 같은 형식의 세션이 공유한다
+    public void broadcastTradeFrames(String symbol, List<byte[]> frames) {
+        SymbolSubscriptionRegistry.SymbolSubscribers subs = subscriptionRegistry.get(symbol);
+        if (subs == null) return;
+        if (!subs.getRealtime().isEmpty()) {
+            TextMessage[] textFrames = null;
+            BinaryMessage binaryFrame = null;
+            for (CustomSession session : subs.getRealtime()) {
+                SnapshotCursor cursor = session.getSnapshotCursor(symbol);
+                if (cursor != null) {
+                    catchUp(session, symbol, cursor, frames);
+                    continue;
+                }
+                if (session.getEncoding() == CustomSession.Encoding.BINARY) {
+                    if (binaryFrame == null) {
+                        byte[] encoded = subs.encodeBinary(frames);
+                        if (encoded != null) binaryFrame = new BinaryMessage(encoded);
+                    }
+                    if (binaryFrame != null) {
+                        enqueueOrRemove(session, binaryFrame);
+                        continue;
+                    }
+                }
+                if (textFrames == null) {
+                    textFrames = new TextMessage[frames.size()];
+                    for (int i = 0; i < textFrames.length; i++) {
+                        textFrames[i] = new TextMessage(frames.get(i));
+                    }
+                }
+                for (TextMessage frame : textFrames) {
+                    enqueueOrRemove(session, frame);
+                }
+            }
+        }
+        for (byte[] frame : frames) {
+            subs.offerToGroups(frame);
+        }
+    }
 
-        sessions.values().forEach(session -> {
+    private void flushConflated() {
+        long now = System.currentTimeMillis();
+        subscriptionRegistry.forEachConflationGroup(group -> {
             try {
-                if (session.isOpen() && symbol.equals(session.getSymbol())) {
-                    session.sendMessage(new TextMessage(json));
+                TextMessage frame = group.poll(now, objectMapper);
+                if (frame == null) return;
+                for (CustomSession session : group.getMembers()) {
+                    enqueueOrRemove(session, frame);
                 }
             } catch (Exception e) {
-                log.error("전송 실패: " + session.getId(), e);
+                log.error("conflation 전송 실패", e);
             }
         });
     }
 
+    private void enqueueOrRemove(CustomSession session, WebSocketMessage<?> frame) {
+        if (session.isOpen()) {
+            session.enqueue(frame);
+        } else {
+            remove(session);
+        }
+    }
+
     public int getActiveSessionCount() {
         return (int) sessions.values().stream()
                 .filter(CustomSession::isOpen)
                 .count();
     }
 
-    @Scheduled(fixedDelay = 30000)
-    public void cleanClosedSessions() {
-        sessions.entrySet().removeIf(entry -> !entry.getValue().isOpen());
+    // 세션별 대기열/지연 현황 (느린 클라이언트 모니터링용)
+    public List<WsSessionStatsResDto> getSessionStats() {
+        return sessions.values().stream()
+                .map(CustomSession::getStats)
+                .toList();
     }
 
-    private static class CustomSession {
-        private final WebSocketSession session;
-        private final String symbol;
-
-        public CustomSession(WebSocketSession session, String symbol) {
-            this.session = session;
-            this.symbol = symbol;
-        }
-
-        public boolean isOpen() {
-            return session.isOpen();
-        }
-
-        public void sendMessage(TextMessage message) throws Exception {
-            session.sendMessage(message);
-        }
+    public WsFanoutStatsResDto getFanoutStats() {
+        return fanoutExecutor.getStats();
+    }
 
-        public String getId() {
-            return session.getId();
-        }
+    public TradeAlertStatsResDto getAlertStats() {
+        return alertIndex.getStats();
+    }
 
-        public String getSymbol() {
-            return symbol;
-        }
+    @Scheduled(fixedDelay = 30000)
+    public void cleanClosedSessions() {
+        sessions.values().stream()
+                .filter(session -> !session.isOpen())
+                .toList()
+                .forEach(this::remove);
     }
-}
\ No newline at end of file
+}
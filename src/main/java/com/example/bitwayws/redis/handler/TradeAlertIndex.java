@@ -0,0 +1,341 @@
+package com.example.bitwayws.redis.handler;
+
+import com.example.bitwayws.analysis.SlidingWindowAnalytics;
+import com.example.bitwayws.dto.AggTradeSlot;
+import com.example.bitwayws.dto.TradeAlertResDto;
+import com.example.bitwayws.dto.TradeAlertStatsResDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 세션이 등록한 알림 규칙(심볼, 최소 금액, 방향, 윈도우 불균형)의 인덱스
+// 규칙이 바뀔 때만 심볼별 배열을 다시 만들고(copy-on-write), 체결 경로는 락 없이 읽기만 한다.
+// whale 규칙은 최소 금액 오름차순이라 이진 탐색으로 걸리는 앞부분만 확인하고, 가장 작은 최소 금액보다 작은 체결은 바로 지나간다.
+// 수집 노드는 전체 심볼을 수집하므로 Redis 를 거치지 않고 체결을 처리한 샤드 스레드에서 바로 세션 큐에 넣는다.
+// 수집하지 않는 노드(bitway.ingest.enabled=false)에는 체결 집계가 없으므로 핸들러가 alert 요청을 error 프레임으로 거부한다.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TradeAlertIndex {
+
+    public static final String ALL_SYMBOLS = "*";
+
+    private final ObjectMapper objectMapper;
+
+    // 세션당 최대 규칙 수
+    @Value("${bitway.alerts.max-rules-per-session:20}")
+    private int maxRulesPerSession;
+
+    // imbalance 규칙이 다시 울리려면 불균형이 임계값의 이 비율 아래로 내려가야 한다 (경계값 근처 반복 알림 방지)
+    @Value("${bitway.alerts.imbalance-rearm-ratio:0.8}")
+    private double rearmRatio;
+
+    // imbalance 규칙에 허용하는 윈도우 (SlidingWindowAnalytics 가 O(1)로 유지하는 윈도우)
+    @Value("${bitway.analysis.windows:1,10,60,300,3600}")
+    private int[] windowSeconds;
+
+    // 세션 -> 규칙 (guarded by this)
+    private final Map<CustomSession, List<Rule>> rulesBySession = new HashMap<>();
+
+    private volatile Index index = Index.EMPTY;
+
+    private final AtomicLong sentCount = new AtomicLong();
+    private volatile long lastLagMs;
+    private volatile long maxLagMs;
+
+    // 같은 id 의 규칙은 교체. 잘못된 규칙이면 이유를 담아 IllegalArgumentException
+    synchronized void register(CustomSession session, String id, Collection<String> symbols, Double minNotional,
+                               String side, Double imbalance, Integer window) {
+        Rule rule = toRule(session, id, symbols, minNotional, side, imbalance, window);
+        List<Rule> rules = rulesBySession.computeIfAbsent(session, s -> new ArrayList<>());
+        if (id != null) rules.removeIf(existing -> id.equals(existing.id));
+        if (rules.size() >= maxRulesPerSession) {
+            throw new IllegalArgumentException("세션당 알림 규칙은 최대 " + maxRulesPerSession + "개입니다");
+        }
+        rules.add(rule);
+        rebuild();
+    }
+
+    // id 가 null 이면 세션의 모든 규칙 해제
+    synchronized void unregister(CustomSession session, String id) {
+        List<Rule> rules = rulesBySession.get(session);
+        if (rules == null) return;
+        if (id == null) {
+            rules.clear();
+        } else {
+            rules.removeIf(rule -> id.equals(rule.id));
+        }
+        if (rules.isEmpty()) rulesBySession.remove(session);
+        rebuild();
+    }
+
+    synchronized void unregisterAll(CustomSession session) {
+        if (rulesBySession.remove(session) != null) rebuild();
+    }
+
+    // 샤드 스레드에서 체결마다 호출 (집계 갱신 직후). 규칙이 없는 심볼은 맵 조회 두 번으로 끝난다
+    public void evaluate(String symbol, AggTradeSlot trade, SlidingWindowAnalytics windows) {
+        Index current = index;
+        if (current == Index.EMPTY) return;
+
+        Rule[] whale = current.whale.get(symbol);
+        if (whale != null || current.whaleAll.length > 0) {
+            evaluateWhale(symbol, trade, whale, current.whaleAll);
+        }
+        Rule[] imbalance = current.imbalance.get(symbol);
+        if (imbalance != null || current.imbalanceAll.length > 0) {
+            evaluateImbalance(symbol, trade, windows, imbalance, current.imbalanceAll);
+        }
+    }
+
+    private void evaluateWhale(String symbol, AggTradeSlot trade, Rule[] bySymbol, Rule[] all) {
+        double notional = trade.getPrice() * trade.getQuantity();
+        int symbolMatches = bySymbol == null ? 0 : matchCount(bySymbol, notional);
+        int allMatches = matchCount(all, notional);
+        if (symbolMatches == 0 && allMatches == 0) return;
+
+        String side = sideOf(trade.isBuyerMaker());
+        TextMessage frame = null;
+        List<CustomSession> delivered = new ArrayList<>(2);
+        for (int pass = 0; pass < 2; pass++) {
+            Rule[] rules = pass == 0 ? bySymbol : all;
+            int matches = pass == 0 ? symbolMatches : allMatches;
+            for (int i = 0; i < matches; i++) {
+                Rule rule = rules[i];
+                if (rule.side != null && !rule.side.equals(side)) continue;
+                if (delivered.contains(rule.session)) continue; // 한 세션에는 체결당 한 번
+                if (frame == null) {
+                    frame = toFrame(TradeAlertResDto.builder()
+                            .kind("whale")
+                            .symbol(symbol)
+                            .side(side)
+                            .aggTradeId(trade.getAggTradeId())
+                            .tradeTime(trade.getTimestamp())
+                            .price(trade.getPrice())
+                            .quantity(trade.getQuantity())
+                            .notional(notional)
+                            .build());
+                    if (frame == null) return;
+                }
+                send(rule.session, frame, trade.getTimestamp());
+                delivered.add(rule.session);
+            }
+        }
+    }
+
+    // (규칙, 심볼) 단위로 임계값을 넘을 때 한 번 울리고, 불균형이 풀리면 다시 무장한다
+    private void evaluateImbalance(String symbol, AggTradeSlot trade, SlidingWindowAnalytics windows,
+                                   Rule[] bySymbol, Rule[] all) {
+        double[] buySell = new double[2];
+        int loadedWindow = -1;
+        for (int pass = 0; pass < 2; pass++) {
+            Rule[] rules = pass == 0 ? bySymbol : all;
+            if (rules == null) continue;
+            for (Rule rule : rules) {
+                // 규칙은 윈도우 순으로 정렬되어 있어 같은 윈도우는 한 번만 읽는다
+                if (rule.window != loadedWindow) {
+                    if (!windows.notional(rule.window, buySell)) continue;
+                    loadedWindow = rule.window;
+                }
+                double total = buySell[0] + buySell[1];
+                double ratio = total > 0 ? (buySell[0] - buySell[1]) / total : 0;
+                String side = ratio >= 0 ? "BUY" : "SELL";
+                boolean triggered = total >= rule.minNotional && Math.abs(ratio) >= rule.imbalance
+                        && (rule.side == null || rule.side.equals(side));
+                if (!triggered) {
+                    if (Math.abs(ratio) < rule.imbalance * rearmRatio || total < rule.minNotional) {
+                        rule.firedSides.remove(symbol);
+                    }
+                    continue;
+                }
+                // 같은 방향으로 이미 울렸으면 생략, 반대 방향으로 뒤집히면 다시 알린다
+                if (side.equals(rule.firedSides.put(symbol, side))) continue;
+                TextMessage frame = toFrame(TradeAlertResDto.builder()
+                        .kind("imbalance")
+                        .symbol(symbol)
+                        .side(side)
+                        .aggTradeId(trade.getAggTradeId())
+                        .tradeTime(trade.getTimestamp())
+                        .price(trade.getPrice())
+                        .quantity(trade.getQuantity())
+                        .notional(total)
+                        .windowSeconds(rule.window)
+                        .imbalance(ratio)
+                        .build());
+                if (frame != null) send(rule.session, frame, trade.getTimestamp());
+            }
+        }
+    }
+
+    // 최소 금액 오름차순 배열에서 minNotional <= notional 인 규칙 수
+    private static int matchCount(Rule[] rules, double notional) {
+        int lo = 0;
+        int hi = rules.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (rules[mid].minNotional <= notional) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private TextMessage toFrame(TradeAlertResDto alert) {
+        try {
+            return new TextMessage(objectMapper.writeValueAsBytes(alert));
+        } catch (Exception e) {
+            log.error("알림 직렬화 실패", e);
+            return null;
+        }
+    }
+
+    private void send(CustomSession session, TextMessage frame, long tradeTime) {
+        if (!session.isOpen()) return; // 정리는 핸들러의 종료 처리에 맡긴다
+        session.enqueue(frame);
+        sentCount.incrementAndGet();
+        long lag = Math.max(0, System.currentTimeMillis() - tradeTime);
+        lastLagMs = lag;
+        if (lag > maxLagMs) maxLagMs = lag;
+    }
+
+    private Rule toRule(CustomSession session, String id, Collection<String> symbols, Double minNotional,
+                        String side, Double imbalance, Integer window) {
+        if (minNotional != null && (minNotional < 0 || minNotional.isNaN())) {
+            throw new IllegalArgumentException("minNotional 은 0 이상이어야 합니다");
+        }
+        String normalizedSide = null;
+        if (side != null && !side.isBlank()) {
+            normalizedSide = side.trim().toUpperCase();
+            if (!normalizedSide.equals("BUY") && !normalizedSide.equals("SELL")) {
+                throw new IllegalArgumentException("side 는 BUY 또는 SELL 입니다: " + side);
+            }
+        }
+        if (imbalance == null) {
+            if (minNotional == null || minNotional <= 0) {
+                throw new IllegalArgumentException("whale 규칙에는 minNotional 이 필요합니다");
+            }
+            return new Rule(session, id, symbolSet(symbols), minNotional, normalizedSide, 0, 0);
+        }
+        if (!(imbalance > 0 && imbalance <= 1)) {
+            throw new IllegalArgumentException("imbalance 는 0 초과 1 이하입니다: " + imbalance);
+        }
+        if (window == null || Arrays.stream(windowSeconds).noneMatch(w -> w == window)) {
+            throw new IllegalArgumentException("window 는 " + Arrays.toString(windowSeconds) + " 중 하나입니다");
+        }
+        return new Rule(session, id, symbolSet(symbols), minNotional == null ? 0 : minNotional,
+                normalizedSide, imbalance, window);
+    }
+
+    private static Set<String> symbolSet(Collection<String> symbols) {
+        return symbols == null || symbols.isEmpty() ? Set.of(ALL_SYMBOLS) : Set.copyOf(symbols);
+    }
+
+    // 전체 규칙으로 심볼별 배열을 새로 만든다 (규칙 변경 시에만)
+    private void rebuild() {
+        Map<String, List<Rule>> whale = new HashMap<>();
+        Map<String, List<Rule>> imbalance = new HashMap<>();
+        for (List<Rule> rules : rulesBySession.values()) {
+            for (Rule rule : rules) {
+                Map<String, List<Rule>> target = rule.isImbalance() ? imbalance : whale;
+                for (String symbol : rule.symbols) {
+                    target.computeIfAbsent(symbol, s -> new ArrayList<>()).add(rule);
+                }
+            }
+        }
+        index = whale.isEmpty() && imbalance.isEmpty()
+                ? Index.EMPTY
+                : new Index(toArrays(whale, Comparator.comparingDouble(rule -> rule.minNotional)),
+                        toArrays(imbalance, Comparator.comparingInt(rule -> rule.window)));
+    }
+
+    private static Map<String, Rule[]> toArrays(Map<String, List<Rule>> rules, Comparator<Rule> order) {
+        Map<String, Rule[]> arrays = new HashMap<>();
+        rules.forEach((symbol, list) -> {
+            Rule[] array = list.toArray(new Rule[0]);
+            Arrays.sort(array, order);
+            arrays.put(symbol, array);
+        });
+        return arrays;
+    }
+
+    public synchronized TradeAlertStatsResDto getStats() {
+        int whaleRules = 0;
+        int imbalanceRules = 0;
+        for (List<Rule> rules : rulesBySession.values()) {
+            for (Rule rule : rules) {
+                if (rule.isImbalance()) imbalanceRules++;
+                else whaleRules++;
+            }
+        }
+        return TradeAlertStatsResDto.builder()
+                .sessions(rulesBySession.size())
+                .whaleRules(whaleRules)
+                .imbalanceRules(imbalanceRules)
+                .sentCount(sentCount.get())
+                .lastLagMs(lastLagMs)
+                .maxLagMs(maxLagMs)
+                .build();
+    }
+
+    private static String sideOf(boolean buyerMaker) {
+        return buyerMaker ? "SELL" : "BUY";
+    }
+
+    // 등록 후 변하지 않는 규칙. firedSides 만 체결 경로에서 갱신된다 (imbalance 심볼별 마지막 알림 방향)
+    private static final class Rule {
+        private final CustomSession session;
+        private final String id;
+        private final Set<String> symbols;
+        private final double minNotional;
+        private final String side;
+        private final double imbalance;
+        private final int window;
+        private final Map<String, String> firedSides = new ConcurrentHashMap<>();
+
+        private Rule(CustomSession session, String id, Set<String> symbols, double minNotional,
+                     String side, double imbalance, int window) {
+            this.session = Objects.requireNonNull(session);
+            this.id = id;
+            this.symbols = symbols;
+            this.minNotional = minNotional;
+            this.side = side;
+            this.imbalance = imbalance;
+            this.window = window;
+        }
+
+        private boolean isImbalance() {
+            return imbalance > 0;
+        }
+    }
+
+    // 체결 경로가 읽는 불변 스냅샷. 전체 심볼 규칙은 따로 꺼내 둔다
+    private static final class Index {
+        private static final Index EMPTY = new Index(Map.of(), Map.of());
+
+        private final Map<String, Rule[]> whale;
+        private final Rule[] whaleAll;
+        private final Map<String, Rule[]> imbalance;
+        private final Rule[] imbalanceAll;
+
+        private Index(Map<String, Rule[]> whale, Map<String, Rule[]> imbalance) {
+            this.whale = whale;
+            this.whaleAll = whale.getOrDefault(ALL_SYMBOLS, new Rule[0]);
+            this.imbalance = imbalance;
+            this.imbalanceAll = imbalance.getOrDefault(ALL_SYMBOLS, new Rule[0]);
+        }
+    }
+}
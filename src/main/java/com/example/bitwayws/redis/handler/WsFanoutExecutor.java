@@ -0,0 +1,120 @@
+package com.example.bitwayws.redis.handler;
+
+import com.example.bitwayws.dto.WsFanoutStatsResDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+// WebSocket 세션 큐를 비우는 공유 실행기 (애플리케이션 수명 동안 하나)
+// platform: 고정 크기 스레드 풀 + bounded 작업 큐, virtual: JDK 21 가상 스레드 (세션당 최대 1개 작업이라 스레드 수는 세션 수 이하)
+@Slf4j
+@Component
+public class WsFanoutExecutor implements Executor {
+
+    public enum Mode {
+        PLATFORM,
+        VIRTUAL
+    }
+
+    @Value("${bitway.ws.fanout.mode:PLATFORM}")
+    private Mode requestedMode;
+
+    @Value("${bitway.ws.fanout.threads:8}")
+    private int threads;
+
+    @Value("${bitway.ws.fanout.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private ExecutorService delegate;
+    private Mode mode;
+
+    private final AtomicLong pendingTasks = new AtomicLong();
+    private final AtomicLong rejectedTasks = new AtomicLong();
+    private final AtomicLong sendCount = new AtomicLong();
+    private final AtomicLong sendNanosTotal = new AtomicLong();
+    private final LongAccumulator sendNanosMax = new LongAccumulator(Math::max, 0);
+
+    @PostConstruct
+    public void init() {
+        mode = requestedMode;
+        if (mode == Mode.VIRTUAL) {
+            delegate = newVirtualThreadExecutor();
+            if (delegate == null) {
+                log.warn("가상 스레드를 지원하지 않는 JDK 입니다 ({}). platform 모드로 실행합니다", Runtime.version());
+                mode = Mode.PLATFORM;
+            }
+        }
+        if (mode == Mode.PLATFORM) {
+            AtomicInteger index = new AtomicInteger();
+            delegate = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), r -> {
+                        Thread thread = new Thread(r, "ws-writer-" + index.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        log.info("WebSocket fan-out 실행기: mode={}, threads={}, queueCapacity={}", mode, threads, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        delegate.shutdownNow();
+    }
+
+    // 큐가 가득 차면 RejectedExecutionException (호출 측에서 다음 enqueue 때 재시도)
+    @Override
+    public void execute(Runnable task) {
+        pendingTasks.incrementAndGet();
+        try {
+            delegate.execute(() -> {
+                pendingTasks.decrementAndGet();
+                task.run();
+            });
+        } catch (RejectedExecutionException e) {
+            pendingTasks.decrementAndGet();
+            rejectedTasks.incrementAndGet();
+            throw e;
+        }
+    }
+
+    void recordSend(long nanos) {
+        sendCount.incrementAndGet();
+        sendNanosTotal.addAndGet(nanos);
+        sendNanosMax.accumulate(nanos);
+    }
+
+    public WsFanoutStatsResDto getStats() {
+        long count = sendCount.get();
+        return WsFanoutStatsResDto.builder()
+                .mode(mode.name())
+                .threads(mode == Mode.PLATFORM ? threads : 0)
+                .pendingTasks(pendingTasks.get())
+                .rejectedTasks(rejectedTasks.get())
+                .sendCount(count)
+                .avgSendLatencyMs(count == 0 ? 0 : sendNanosTotal.get() / (double) count / 1_000_000)
+                .maxSendLatencyMs(sendNanosMax.get() / 1_000_000.0)
+                .build();
+    }
+
+    // JDK 17 로도 컴파일되도록 리플렉션으로 호출
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.bitwayws.redis.pubsub;
+
+import com.example.bitwayws.dto.AggTradeSlot;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// 기존 방식: Binance 원문/분석 JSON 을 그대로 보낸다 (버전 바이트 없음, 첫 바이트 '{')
+@Component
+@ConditionalOnProperty(name = "bitway.codec", havingValue = "JSON", matchIfMissing = true)
+public class JsonTradeCodec implements TradeCodec {
+
+    @Override
+    public byte[] encodeTrade(AggTradeSlot trade, String rawFrame) {
+        return rawFrame.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] encodeAnalysis(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public List<byte[]> frameTrades(List<byte[]> entries) {
+        return entries;
+    }
+
+    @Override
+    public String getName() {
+        return "JSON";
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.bitwayws.redis.pubsub;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.stereotype.Component;
+
+// PUBLISH: 구독 중인 노드에만 즉시 전달, 보관하지 않음
+@Component
+@ConditionalOnProperty(name = "bitway.transport", havingValue = "PUBSUB", matchIfMissing = true)
+public class PubSubTradeTransport implements TradeTransport {
+
+    @Override
+    public void send(RedisConnection connection, byte[] channel, byte[] message) {
+        connection.publish(channel, message);
+    }
+
+    @Override
+    public String getName() {
+        return "PUBSUB";
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.bitwayws.redis.pubsub;
+
+import com.example.bitwayws.dto.AggTradeSlot;
+import com.example.bitwayws.websocket.AggTradeParser;
+import com.example.bitwayws.websocket.AsciiCharSequence;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// stream:trade:<symbol> 을 뒤에서부터(XREVRANGE) 페이지 단위로 읽는다
+@Component
+@ConditionalOnProperty(name = "bitway.transport", havingValue = "STREAMS")
+@RequiredArgsConstructor
+public class StreamTradeHistoryReader implements TradeHistoryReader {
+
+    private static final int PAGE_SIZE = 500;
+
+    private final StringRedisTemplate redisTemplate;
+    private final TradeFrameDecoder frameDecoder;
+
+    @Override
+    public List<byte[]> recentTrades(String symbol, int count) {
+        if (count <= 0) return List.of();
+        byte[] key = tradeKey(symbol);
+        List<ByteRecord> records = redisTemplate.execute((RedisCallback<List<ByteRecord>>) connection ->
+                connection.streamCommands().xRevRange(key, Range.unbounded(), Limit.limit().count(count)));
+        if (records == null) return List.of();
+        // 바이너리 인코딩이면 항목 하나에 체결 여러 건이 들어 있으므로 풀어서 뒤에서 count 건만
+        List<byte[]> trades = new ArrayList<>(records.size());
+        for (int i = records.size() - 1; i >= 0; i--) {
+            frameDecoder.decode(bodyOf(records.get(i)), trades::add);
+        }
+        return trades.size() > count ? new ArrayList<>(trades.subList(trades.size() - count, trades.size())) : trades;
+    }
+
+    @Override
+    public List<byte[]> tradesSince(String symbol, long sinceAggTradeId, int maxCount) {
+        byte[] key = tradeKey(symbol);
+        AggTradeParser parser = new AggTradeParser();
+        AsciiCharSequence view = new AsciiCharSequence();
+        AggTradeSlot trade = new AggTradeSlot();
+
+        List<byte[]> trades = new ArrayList<>();
+        List<byte[]> frames = new ArrayList<>();
+        Range<String> range = Range.unbounded();
+        while (trades.size() < maxCount) {
+            Range<String> pageRange = range;
+            List<ByteRecord> page = redisTemplate.execute((RedisCallback<List<ByteRecord>>) connection ->
+                    readPage(connection, key, pageRange));
+            if (page == null || page.isEmpty()) break;
+            for (ByteRecord record : page) {
+                frames.clear();
+                frameDecoder.decode(bodyOf(record), frames::add);
+                for (int i = frames.size() - 1; i >= 0; i--) {
+                    byte[] frame = frames.get(i);
+                    if (aggTradeIdOf(parser, view.wrap(frame), trade) <= sinceAggTradeId || trades.size() >= maxCount) {
+                        Collections.reverse(trades);
+                        return trades;
+                    }
+                    trades.add(frame);
+                }
+            }
+            String lastId = page.get(page.size() - 1).getId().getValue();
+            range = Range.of(Range.Bound.unbounded(), Range.Bound.exclusive(lastId));
+        }
+        Collections.reverse(trades);
+        return trades;
+    }
+
+    // 파싱할 수 없으면 Long.MAX_VALUE (계속 포함)
+    private static long aggTradeIdOf(AggTradeParser parser, AsciiCharSequence json, AggTradeSlot trade) {
+        try {
+            return parser.parse(json, trade) ? trade.getAggTradeId() : Long.MAX_VALUE;
+        } catch (IllegalArgumentException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static List<ByteRecord> readPage(RedisConnection connection, byte[] key, Range<String> range) {
+        return connection.streamCommands().xRevRange(key, range, Limit.limit().count(PAGE_SIZE));
+    }
+
+    private static byte[] tradeKey(String symbol) {
+        return StreamTradeTransport.streamKey(TradeAggPublisher.TRADE_CHANNEL_PREFIX + symbol.toLowerCase())
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    // 레코드는 필드 하나(d)만 가진다
+    private static byte[] bodyOf(ByteRecord record) {
+        return record.getValue().values().iterator().next();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.bitwayws.redis.pubsub;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+// XADD stream:<channel> MAXLEN ~ N * d <message>
+// 노드가 재시작하거나 느려도 스트림에 남아 있는 동안은 consumer group 으로 이어 읽고, 새 클라이언트에 최근 체결을 보내줄 수 있다.
+@Component
+@ConditionalOnProperty(name = "bitway.transport", havingValue = "STREAMS")
+public class StreamTradeTransport implements TradeTransport {
+
+    public static final String STREAM_KEY_PREFIX = "stream:";
+    public static final byte[] FIELD = "d".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] PREFIX_BYTES = STREAM_KEY_PREFIX.getBytes(StandardCharsets.UTF_8);
+
+    // 스트림별 보관 건수 (근사 trim)
+    @Value("${bitway.streams.max-len:10000}")
+    private long maxLen;
+
+    @Override
+    public void send(RedisConnection connection, byte[] channel, byte[] message) {
+        MapRecord<byte[], byte[], byte[]> record = MapRecord.create(streamKey(channel), Collections.singletonMap(FIELD, message));
+        connection.streamCommands().xAdd(record, XAddOptions.maxlen(maxLen).approximateTrimming(true));
+    }
+
+    @Override
+    public String getName() {
+        return "STREAMS";
+    }
+
+    public static byte[] streamKey(byte[] channel) {
+        byte[] key = new byte[PREFIX_BYTES.length + channel.length];
+        System.arraycopy(PREFIX_BYTES, 0, key, 0, PREFIX_BYTES.length);
+        System.arraycopy(channel, 0, key, PREFIX_BYTES.length, channel.length);
+        return key;
+    }
+
+    public static String streamKey(String channel) {
+        return STREAM_KEY_PREFIX + channel;
+    }
+}
@@ -1,48 +1,250 @@
 package com.example.bitwayws.redis.pubsub;
 
+import com.example.bitwayws.dto.AggTradeSlot;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 비동기 Redis 전송 (Pub/Sub 또는 Streams, TradeTransport 참고)
+// publish() 는 채널별 bounded 큐에 넣기만 하고, 단일 flusher 스레드가 flushSize 단위로 모아 파이프라이닝 전송한다.
+// 수집(Binance 소켓) 스레드는 Redis 왕복 지연에 묶이지 않는다.
+// 전송은 최대 한 번(at-most-once): 실패한 배치는 재시도하지 않고 버린 건수를 센다 (재시도하면 이미 전송된 메시지가 중복 발행된다).
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class TradeAggPublisher {
 
     private final StringRedisTemplate redisTemplate;
-    private static final String CHANNEL_PREFIX = "trade:";
+    private final TradeTransport transport;
+    private final TradeCodec codec;
+    public static final String TRADE_CHANNEL_PREFIX = "trade:";
+    public static final String ANALYSIS_CHANNEL_PREFIX = "analysis:";
+    public static final String CANDLE_CHANNEL_PREFIX = "candle:";
 
-    private static final int MAX_RETRIES = 3;
-    private static final long RETRY_DELAY_MS = 100;
-    private static final int MAX_MESSAGE_LENGTH = 3000;
+    // 채널별 대기 큐 크기
+    @Value("${bitway.publisher.queue-capacity:10000}")
+    private int queueCapacity;
 
-    // Redis Pub/Sub 전송 (WebSocket 직접 전송은 Subscriber가 처리)
-    public void publish(String symbol, String message) {
-        String channel = CHANNEL_PREFIX + symbol.toLowerCase();
+    // 한 번의 파이프라인으로 보낼 최대 메시지 수
+    @Value("${bitway.publisher.flush-size:256}")
+    private int flushSize;
 
-        if (message.length() > MAX_MESSAGE_LENGTH) {
-            log.warn("[Redis-Pub] {} 채널에 보낼 메시지가 너무 깁니다 ({}자)", symbol, message.length());
-            return;
+    // flushSize 에 못 미쳐도 이 시간마다 전송
+    @Value("${bitway.publisher.linger-ms:5}")
+    private long lingerMs;
+
+    // 큐가 가득 찼을 때: DROP_OLDEST(오래된 메시지 버림) / DROP_NEWEST(새 메시지 버림)
+    @Value("${bitway.publisher.overflow-policy:DROP_OLDEST}")
+    private OverflowPolicy overflowPolicy;
+
+    private final Map<String, ChannelQueue> queues = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+    private final AtomicLong publishedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private ScheduledExecutorService flusher;
+    private volatile boolean closed;
+
+    @PostConstruct
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "redis-pub-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushSafely, lingerMs, lingerMs, TimeUnit.MILLISECONDS);
+        log.info("[Redis-Pub] 전송 방식: {}, 인코딩: {}", transport.getName(), codec.getName());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(1, TimeUnit.SECONDS)) flusher.shutdownNow();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        flushSafely(); // 남은 메시지 전송
+    }
+
+    // 체결은 trade:<symbol> 채널. rawFrame 은 JSON 인코딩일 때 그대로 전달된다
+    public void publishTrade(AggTradeSlot trade, String rawFrame) {
+        enqueue(TRADE_CHANNEL_PREFIX + trade.getSymbol().toLowerCase(), codec.encodeTrade(trade, rawFrame));
+    }
 
-        for (int i = 0; i < MAX_RETRIES; i++) {
+    // 분석 결과는 analysis:<symbol> 채널 (해당 심볼 구독자에게만 전달)
+    public void publishAnalysis(String symbol, String message) {
+        enqueue(ANALYSIS_CHANNEL_PREFIX + symbol.toLowerCase(), codec.encodeAnalysis(message));
+    }
+
+    // 닫힌 캔들은 candle:<symbol> 채널 (분석 결과와 같은 JSON 메시지 인코딩)
+    public void publishCandle(String symbol, String message) {
+        enqueue(CANDLE_CHANNEL_PREFIX + symbol.toLowerCase(), codec.encodeAnalysis(message));
+    }
+
+    // 종료 후에는 수집 스레드에 예외를 던지지 않고 버린다
+    private void enqueue(String channel, byte[] message) {
+        if (closed) {
+            droppedCount.incrementAndGet();
+            return;
+        }
+        ChannelQueue queue = queues.computeIfAbsent(channel, ChannelQueue::new);
+        if (!queue.offer(message)) {
+            long dropped = droppedCount.incrementAndGet();
+            if (dropped % 1000 == 1) {
+                log.warn("[Redis-Pub] {} 채널 큐가 가득 차 메시지를 버렸습니다 (누적 {}건, 정책 {})", channel, dropped, overflowPolicy);
+            }
+        }
+        if (queue.size() >= flushSize && flushRequested.compareAndSet(false, true)) {
             try {
-                Long receivers = redisTemplate.convertAndSend(channel, message);
+                flusher.execute(this::flushSafely);
+            } catch (RejectedExecutionException e) {
+                flushRequested.set(false); // 종료 중: 남은 메시지는 shutdown 의 마지막 flush 가 보낸다
+            }
+        }
+    }
+
+    private void flushSafely() {
+        flushRequested.set(false);
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("[Redis-Pub] flush 실패: {}", e.getMessage(), e);
+        }
+    }
 
-                if (receivers == null || receivers == 0) {
-                    log.warn("[Redis-Pub] 구독자가 없는 채널입니다: {}", channel);
+    // flushSize 는 큐에서 꺼내는 항목 수 기준. 체결 채널은 코덱이 여러 건을 한 메시지로 묶을 수 있다
+    private void flush() {
+        List<byte[]> channels = new ArrayList<>(flushSize);
+        List<byte[]> messages = new ArrayList<>(flushSize);
+        List<byte[]> entries = new ArrayList<>(flushSize);
+        int pending = 0;
+        boolean drained;
+        do {
+            drained = true;
+            for (ChannelQueue queue : queues.values()) {
+                entries.clear();
+                queue.drainTo(entries, flushSize - pending);
+                if (entries.isEmpty()) continue;
+                pending += entries.size();
+                for (byte[] message : queue.tradeChannel ? codec.frameTrades(entries) : entries) {
+                    channels.add(queue.channelBytes);
+                    messages.add(message);
                 }
-                return; // success
-            } catch (Exception e) {
-                log.error("[Redis-Pub] {} 채널에 트레이드 전송 실패 (시도 {}/{}): {}", channel, i + 1, MAX_RETRIES, e.getMessage());
-                try {
-                    Thread.sleep(RETRY_DELAY_MS * (i + 1));
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
+                if (pending >= flushSize) {
+                    sendBatch(channels, messages);
+                    channels.clear();
+                    messages.clear();
+                    pending = 0;
+                    drained = false;
                 }
             }
+        } while (!drained);
+
+        if (!messages.isEmpty()) {
+            sendBatch(channels, messages);
+        }
+    }
+
+    // 파이프라인 1회로 배치 전송. 실패한 명령은 다시 보내지 않고 실패 건수로만 센다 (flusher 를 멈추지 않음)
+    private void sendBatch(List<byte[]> channels, List<byte[]> messages) {
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                publishAll(connection, channels, messages);
+                return null;
+            });
+            publishedCount.addAndGet(messages.size());
+        } catch (RedisPipelineException e) {
+            // 명령별 결과 중 예외인 것만 실패 (나머지는 이미 전송됨)
+            long failed = e.getPipelineResult().stream().filter(Throwable.class::isInstance).count();
+            if (e.getPipelineResult().size() < messages.size()) failed += messages.size() - e.getPipelineResult().size();
+            onFailed(messages.size(), failed, e);
+        } catch (Exception e) {
+            onFailed(messages.size(), messages.size(), e);
+        }
+    }
+
+    private void onFailed(int batchSize, long failed, Exception e) {
+        publishedCount.addAndGet(batchSize - failed);
+        long total = failedCount.addAndGet(failed);
+        log.error("[Redis-Pub] {}건 중 {}건 전송 실패, 버림 (누적 {}건): {}", batchSize, failed, total, e.getMessage());
+    }
+
+    private void publishAll(RedisConnection connection, List<byte[]> channels, List<byte[]> messages) {
+        for (int i = 0; i < messages.size(); i++) {
+            transport.send(connection, channels.get(i), messages.get(i));
+        }
+    }
+
+    public long getPublishedCount() {
+        return publishedCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public int getPendingCount() {
+        return queues.values().stream().mapToInt(ChannelQueue::size).sum();
+    }
+
+    public enum OverflowPolicy {
+        DROP_OLDEST,
+        DROP_NEWEST
+    }
+
+    private class ChannelQueue {
+        private final byte[] channelBytes;
+        private final boolean tradeChannel;
+        private final ArrayBlockingQueue<byte[]> queue;
+
+        private ChannelQueue(String channel) {
+            this.channelBytes = channel.getBytes(StandardCharsets.UTF_8);
+            this.tradeChannel = channel.startsWith(TRADE_CHANNEL_PREFIX);
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        // 정책에 따라 넣지 못하면 false
+        private boolean offer(byte[] message) {
+            if (queue.offer(message)) return true;
+            if (overflowPolicy == OverflowPolicy.DROP_NEWEST) return false;
+            queue.poll(); // DROP_OLDEST
+            queue.offer(message);
+            return false;
+        }
+
+        private void drainTo(List<byte[]> target, int max) {
+            if (max > 0) queue.drainTo(target, max);
+        }
+
+        private int size() {
+            return queue.size();
         }
-        log.error("[Redis-Pub] {} 채널에 최종 전송 실패 ({}회 시도됨)", channel, MAX_RETRIES);
     }
-}
\ No newline at end of file
+}
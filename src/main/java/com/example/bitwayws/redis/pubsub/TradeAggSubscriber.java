@@ -1,47 +1,115 @@
 package com.example.bitwayws.redis.pubsub;
 
-import com.example.bitwayws.dto.BinanceAggTradeResDto;
 import com.example.bitwayws.redis.handler.TradeAggWebSocketHandler;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
+// 리스너 컨테이너는 메시지를 Redis 수신 스레드에서 그대로 넘기고(SyncTaskExecutor),
+// 여기서 채널 해시로 고른 단일 스레드 lane 에 넘긴다. 같은 채널의 메시지 순서는 유지하면서 심볼끼리는 병렬 처리된다.
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class TradeAggSubscriber implements MessageListener {
 
     private final TradeAggWebSocketHandler tradeWebSocketHandler;
-    private final ObjectMapper objectMapper;
+    private final TradeFrameDecoder frameDecoder;
 
     private static final AtomicLong redisMessageCount = new AtomicLong(0);
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    // 처리 lane 수 (0 이면 Redis 수신 스레드에서 바로 처리)
+    @Value("${bitway.redis.listener-threads:4}")
+    private int listenerThreads;
+
+    // lane 별 대기 메시지 수
+    @Value("${bitway.redis.listener-queue-capacity:10000}")
+    private int listenerQueueCapacity;
+
+    private ExecutorService[] lanes;
+
+    @PostConstruct
+    public void init() {
+        lanes = new ExecutorService[Math.max(0, listenerThreads)];
+        for (int i = 0; i < lanes.length; i++) {
+            String name = "redis-listener-" + (i + 1);
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(listenerQueueCapacity), r -> {
+                        Thread thread = new Thread(r, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        log.info("Redis 리스너 lane: {}개, lane 당 큐 {}", lanes.length, listenerQueueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Arrays.stream(lanes).forEach(ExecutorService::shutdownNow);
+    }
 
     @Override
     public void onMessage(Message message, byte[] pattern) {
+        deliver(message.getChannel(), message.getBody());
+    }
+
+    // Pub/Sub 리스너 또는 Streams 소비자(TradeStreamConsumer)가 받은 메시지를 채널 lane 으로 넘긴다
+    // lane 이 가득 차 넘기지 못하면 false (Streams 소비자는 ack 하지 않고 다시 읽는다)
+    public boolean deliver(byte[] channel, byte[] body) {
         redisMessageCount.incrementAndGet();
-        String topic = new String(message.getChannel());
-        String body = new String(message.getBody());
+        if (lanes.length == 0) {
+            dispatch(channel, body);
+            return true;
+        }
         try {
-            if (topic.startsWith("trade:")) {
-                String symbol = topic.split(":")[1];
-                if (body != null && body.trim().startsWith("{")) {
-                    BinanceAggTradeResDto trade = objectMapper.readValue(body, BinanceAggTradeResDto.class);
-                    tradeWebSocketHandler.broadcastToSymbol(symbol, trade);
+            lanes[Math.floorMod(Arrays.hashCode(channel), lanes.length)].execute(() -> dispatch(channel, body));
+            return true;
+        } catch (RejectedExecutionException e) {
+            long dropped = droppedCount.incrementAndGet();
+            if (dropped % 1000 == 1) {
+                log.warn("Redis 리스너 lane 이 가득 차 메시지를 넘기지 못했습니다 (누적 {}건)", dropped);
+            }
+            return false;
+        }
+    }
+
+    // Redis 본문을 JSON 프레임으로 풀어(JSON 인코딩이면 그대로) WebSocket 으로 전달한다. 체결 배치는 묶음 그대로 넘긴다
+    private void dispatch(byte[] channel, byte[] body) {
+        String topic = new String(channel, StandardCharsets.UTF_8);
+        try {
+            if (topic.startsWith(TradeAggPublisher.TRADE_CHANNEL_PREFIX)) {
+                String symbol = topic.substring(TradeAggPublisher.TRADE_CHANNEL_PREFIX.length());
+                List<byte[]> frames = new ArrayList<>(1);
+                if (frameDecoder.decode(body, frames::add)) {
+                    tradeWebSocketHandler.broadcastTradeFrames(symbol, frames);
                 } else {
-                    log.warn("trade 채널 메시지가 JSON 형식이 아님: {}", body);
+                    log.warn("trade 채널 메시지를 해석할 수 없음: {}바이트", body.length);
                 }
-            } else if (topic.startsWith("analysis:")) {
-                tradeWebSocketHandler.broadcast(body);
+            } else if (topic.startsWith(TradeAggPublisher.ANALYSIS_CHANNEL_PREFIX)) {
+                String symbol = topic.substring(TradeAggPublisher.ANALYSIS_CHANNEL_PREFIX.length());
+                frameDecoder.decode(body, frame -> tradeWebSocketHandler.broadcastFrameToSymbol(symbol, frame));
+            } else if (topic.startsWith(TradeAggPublisher.CANDLE_CHANNEL_PREFIX)) {
+                String symbol = topic.substring(TradeAggPublisher.CANDLE_CHANNEL_PREFIX.length());
+                frameDecoder.decode(body, frame -> tradeWebSocketHandler.broadcastFrameToSymbol(symbol, frame));
             } else {
                 log.warn("알 수 없는 Redis 채널: {}", topic);
             }
-        } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
-            log.error("Redis 메시지 파싱 실패: {}", body, e);
         } catch (Exception e) {
             log.error("Exception in onMessage: ", e);
         }
@@ -50,4 +118,8 @@ public class TradeAggSubscriber implements MessageListener {
     public long getRedisMessageCount() {
         return redisMessageCount.get();
     }
-}
\ No newline at end of file
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.bitwayws.redis.pubsub;
+
+import com.example.bitwayws.redis.handler.SymbolSubscriptionRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+// 노드별 Redis 채널 구독 관리
+// SYMBOL: 이 노드의 WebSocket 클라이언트가 구독한 심볼의 채널(trade:<symbol>, analysis:<symbol>, candle:<symbol>)만 구독한다.
+//         첫 구독자가 생기면 SUBSCRIBE, 마지막 구독자가 빠지면 UNSUBSCRIBE.
+// ALL: 패턴(trade:*, analysis:*, candle:*)으로 전체 심볼을 받는다 (단일 노드/전체 시세 노드용).
+@Component
+@ConditionalOnProperty(name = "bitway.transport", havingValue = "PUBSUB", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class TradeChannelSubscriptionManager implements SymbolSubscriptionRegistry.Listener, TradeChannelSubscriptions {
+
+    public enum Mode {
+        SYMBOL,
+        ALL
+    }
+
+    private static final List<String> CHANNEL_PREFIXES = List.of(
+            TradeAggPublisher.TRADE_CHANNEL_PREFIX,
+            TradeAggPublisher.ANALYSIS_CHANNEL_PREFIX,
+            TradeAggPublisher.CANDLE_CHANNEL_PREFIX);
+
+    private final RedisMessageListenerContainer container;
+    private final TradeAggSubscriber subscriber;
+    private final SymbolSubscriptionRegistry subscriptionRegistry;
+
+    @Value("${bitway.redis.subscription-mode:SYMBOL}")
+    private Mode mode;
+
+    // 심볼 -> 구독 중인 채널 (guarded by this)
+    private final Map<String, List<Topic>> subscribedTopics = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (mode == Mode.ALL) {
+            List<Topic> patterns = CHANNEL_PREFIXES.stream()
+                    .map(prefix -> (Topic) new PatternTopic(prefix + "*"))
+                    .toList();
+            container.addMessageListener(subscriber, patterns);
+            log.info("Redis 구독: 전체 심볼 패턴 {}", patterns);
+            return;
+        }
+        subscriptionRegistry.addListener(this);
+        subscriptionRegistry.getSubscribedSymbols().forEach(this::reconcile);
+        log.info("Redis 구독: 심볼별 채널 (구독자가 있는 심볼만)");
+    }
+
+    @Override
+    public void onFirstSubscriber(String symbol) {
+        reconcile(symbol);
+    }
+
+    @Override
+    public void onLastUnsubscribed(String symbol) {
+        reconcile(symbol);
+    }
+
+    // 알림 순서와 무관하게 현재 구독자 수 기준으로 채널 구독을 맞춘다
+    private synchronized void reconcile(String symbol) {
+        boolean wanted = subscriptionRegistry.getSubscriberCount(symbol) > 0;
+        List<Topic> topics = subscribedTopics.get(symbol);
+        if (wanted && topics == null) {
+            topics = CHANNEL_PREFIXES.stream()
+                    .map(prefix -> (Topic) new ChannelTopic(prefix + symbol))
+                    .toList();
+            container.addMessageListener(subscriber, topics);
+            subscribedTopics.put(symbol, topics);
+            log.info("[Redis 구독] {} 채널 구독 ({}개 심볼)", symbol, subscribedTopics.size());
+        } else if (!wanted && topics != null) {
+            container.removeMessageListener(subscriber, topics);
+            subscribedTopics.remove(symbol);
+            log.info("[Redis 구독] {} 채널 해제 ({}개 심볼)", symbol, subscribedTopics.size());
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    @Override
+    public synchronized Set<String> getSubscribedSymbols() {
+        return new TreeSet<>(subscribedTopics.keySet());
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.bitwayws.redis.pubsub;
+
+import java.util.Set;
+
+// 이 노드가 Redis 에서 받아오는 심볼 (Pub/Sub 채널 구독 또는 Streams 소비)
+public interface TradeChannelSubscriptions {
+
+    Set<String> getSubscribedSymbols();
+}
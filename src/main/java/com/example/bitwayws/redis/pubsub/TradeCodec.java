@@ -0,0 +1,21 @@
+package com.example.bitwayws.redis.pubsub;
+
+import com.example.bitwayws.dto.AggTradeSlot;
+
+import java.util.List;
+
+// 노드 간 Redis 구간의 메시지 인코딩 (bitway.codec=JSON|BINARY)
+// 브라우저로 나가는 프레임은 항상 JSON 이며, 수신 측(TradeFrameDecoder)은 첫 바이트로 형식을 구분하므로 두 형식이 섞여 있어도 된다.
+public interface TradeCodec {
+
+    // 체결 한 건 → 채널 큐 항목 (샤드 스레드에서 호출)
+    byte[] encodeTrade(AggTradeSlot trade, String rawFrame);
+
+    // 분석 결과/캔들 등 JSON 메시지 → Redis 메시지
+    byte[] encodeAnalysis(String json);
+
+    // 한 채널에서 꺼낸 체결 항목들 → Redis 메시지 목록 (여러 건을 한 메시지로 묶을 수 있다)
+    List<byte[]> frameTrades(List<byte[]> entries);
+
+    String getName();
+}
@@ -0,0 +1,117 @@
+package com.example.bitwayws.redis.pubsub;
+
+import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+// Redis 메시지 → 브라우저로 보낼 JSON 프레임
+// 첫 바이트가 '{' 이면 기존 JSON 그대로, 아니면 버전 바이트로 보고 BinaryTradeCodec 형식을 푼다.
+// 인코딩 설정(bitway.codec)과 무관하게 항상 등록되므로 노드마다 설정이 달라도(롤링 배포 중) 서로 읽을 수 있다.
+@Component
+@Slf4j
+public class TradeFrameDecoder {
+
+    private final LZ4FastDecompressor decompressor = LZ4Factory.fastestInstance().fastDecompressor();
+
+    // 메시지 하나가 여러 프레임(체결 배치)일 수 있다. 해석할 수 없으면 false
+    public boolean decode(byte[] body, Consumer<byte[]> frames) {
+        if (body.length == 0) return false;
+        if (isJsonObject(body)) {
+            frames.accept(body);
+            return true;
+        }
+        if (body[0] != BinaryTradeCodec.VERSION_1 || body.length < 2) {
+            log.warn("지원하지 않는 Redis 메시지 버전: {}", body[0]);
+            return false;
+        }
+        try {
+            switch (body[1]) {
+                case BinaryTradeCodec.TYPE_TRADES -> decodeTrades(body, frames);
+                case BinaryTradeCodec.TYPE_ANALYSIS -> frames.accept(Arrays.copyOfRange(body, 2, body.length));
+                case BinaryTradeCodec.TYPE_ANALYSIS_LZ4 -> {
+                    int originalLength = ByteBuffer.wrap(body, 2, 4).getInt();
+                    frames.accept(decompressor.decompress(body, 6, originalLength));
+                }
+                default -> {
+                    log.warn("알 수 없는 Redis 메시지 타입: {}", body[1]);
+                    return false;
+                }
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Redis 메시지 해석 실패: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static void decodeTrades(byte[] body, Consumer<byte[]> frames) {
+        ByteBuffer buffer = ByteBuffer.wrap(body, 2, body.length - 2);
+        int count = buffer.getShort() & 0xFFFF;
+        StringBuilder json = new StringBuilder(160);
+        for (int i = 0; i < count; i++) {
+            int length = buffer.getShort() & 0xFFFF;
+            int next = buffer.position() + length;
+            frames.accept(tradeJson(buffer, json));
+            buffer.position(next);
+        }
+    }
+
+    // Binance aggTrade 와 같은 키 이름(s, a, p, q, T, m)으로 다시 쓴다. E/f/l/M 은 전달하지 않는다
+    private static byte[] tradeJson(ByteBuffer buffer, StringBuilder json) {
+        long aggTradeId = buffer.getLong();
+        double price = buffer.getDouble();
+        double quantity = buffer.getDouble();
+        long tradeTime = buffer.getLong();
+        int flags = buffer.get();
+        int symbolLength = buffer.get() & 0xFF;
+
+        json.setLength(0);
+        json.append("{\"e\":\"aggTrade\",\"s\":\"");
+        for (int i = 0; i < symbolLength; i++) {
+            json.append((char) buffer.get());
+        }
+        return finishTradeJson(json, aggTradeId, price, quantity, tradeTime, (flags & BinaryTradeCodec.FLAG_BUYER_MAKER) != 0);
+    }
+
+    // 인메모리 체결(구독 스냅샷 등)을 같은 형식으로 쓴다
+    public static byte[] tradeJson(StringBuilder json, String symbol, long aggTradeId, double price, double quantity,
+                                   long tradeTime, boolean buyerMaker) {
+        json.setLength(0);
+        json.append("{\"e\":\"aggTrade\",\"s\":\"").append(symbol);
+        return finishTradeJson(json, aggTradeId, price, quantity, tradeTime, buyerMaker);
+    }
+
+    private static byte[] finishTradeJson(StringBuilder json, long aggTradeId, double price, double quantity,
+                                          long tradeTime, boolean buyerMaker) {
+        json.append("\",\"a\":").append(aggTradeId);
+        json.append(",\"p\":\"");
+        appendDecimal(json, price);
+        json.append("\",\"q\":\"");
+        appendDecimal(json, quantity);
+        json.append("\",\"T\":").append(tradeTime);
+        json.append(",\"m\":").append(buyerMaker);
+        json.append('}');
+        return json.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // 지수 표기(1.0E-5) 대신 일반 소수로
+    private static void appendDecimal(StringBuilder json, double value) {
+        String text = Double.toString(value);
+        json.append(text.indexOf('E') >= 0 ? BigDecimal.valueOf(value).toPlainString() : text);
+    }
+
+    private static boolean isJsonObject(byte[] body) {
+        for (byte b : body) {
+            if (b == ' ' || b == '\t' || b == '\r' || b == '\n') continue;
+            return b == '{';
+        }
+        return false;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.bitwayws.redis.pubsub;
+
+import java.util.List;
+
+// 새 WebSocket 클라이언트에 보낼 최근 체결 (Binance aggTrade 원문, 오래된 순)
+public interface TradeHistoryReader {
+
+    List<byte[]> recentTrades(String symbol, int count);
+
+    // aggTradeId 가 sinceAggTradeId 보다 큰 체결, 최대 maxCount 건 (넘치면 최근 쪽을 남긴다)
+    List<byte[]> tradesSince(String symbol, long sinceAggTradeId, int maxCount);
+}
@@ -0,0 +1,281 @@
+package com.example.bitwayws.redis.pubsub;
+
+import com.example.bitwayws.redis.handler.SymbolSubscriptionRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamInfo;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Streams 전송 모드의 수신 측
+// 노드마다 consumer group(ws-<nodeId>) 하나를 두고, 이 노드 클라이언트가 구독한 심볼의 스트림을
+// XREADGROUP 한 번에 여러 스트림 × 최대 read-count 건씩 읽어 TradeAggSubscriber 로 넘긴 뒤 XACK 한다.
+// 재시작 시에는 그룹의 마지막 전달 위치부터 이어 읽되 resume-max-age-ms 보다 오래된 항목은 건너뛰고,
+// 실행 중 다시 구독하면 최신($)으로 옮겨 구독 시각 이후 항목만 실시간으로 내보낸다 (그 사이 체결은 since 스냅샷으로).
+// lane 에 넘긴 항목만 ack 하고, 넘기지 못한 항목은 pending 으로 남겨 다음 읽기에서 다시 보낸다 (스트림 안 순서 유지).
+@Component
+@ConditionalOnProperty(name = "bitway.transport", havingValue = "STREAMS")
+@RequiredArgsConstructor
+@Slf4j
+public class TradeStreamConsumer implements SymbolSubscriptionRegistry.Listener, TradeChannelSubscriptions {
+
+    private static final List<String> CHANNEL_PREFIXES = List.of(
+            TradeAggPublisher.TRADE_CHANNEL_PREFIX,
+            TradeAggPublisher.ANALYSIS_CHANNEL_PREFIX,
+            TradeAggPublisher.CANDLE_CHANNEL_PREFIX);
+    private static final int KEY_PREFIX_LENGTH = StreamTradeTransport.STREAM_KEY_PREFIX.length();
+
+    private final StringRedisTemplate redisTemplate;
+    private final TradeAggSubscriber subscriber;
+    private final SymbolSubscriptionRegistry subscriptionRegistry;
+
+    // consumer group 이름에 쓰이는 노드 식별자. 노드마다 달라야 하고 재시작해도 같아야 하므로 반드시 지정한다
+    // (두 노드가 같은 그룹을 쓰면 Redis 가 항목을 나눠 주어 각 노드가 체결의 일부만 받는다)
+    @Value("${bitway.node-id:}")
+    private String nodeId;
+
+    // XREADGROUP COUNT / BLOCK
+    @Value("${bitway.streams.read-count:500}")
+    private int readCount;
+
+    @Value("${bitway.streams.block-ms:100}")
+    private long blockMs;
+
+    // 이어 읽을 때 이보다 오래된 항목은 실시간으로 내보내지 않고 건너뛴다 (ms)
+    @Value("${bitway.streams.resume-max-age-ms:60000}")
+    private long resumeMaxAgeMs;
+
+    // 심볼 -> 읽을 스트림 키들
+    private final Map<String, List<byte[]>> streamKeys = new ConcurrentHashMap<>();
+    // 스트림 키 -> 이 ID 이하 항목은 내보내지 않음. 실행 중 구독할 때 옮긴 그룹 위치($)
+    private final Map<String, RecordId> liveAfter = new ConcurrentHashMap<>();
+    private final AtomicLong skippedCount = new AtomicLong();
+
+    private String group;
+    private Thread reader;
+    private volatile boolean running = true;
+
+    @PostConstruct
+    public void init() {
+        if (nodeId == null || nodeId.isBlank()) {
+            throw new IllegalStateException("bitway.transport=STREAMS 에는 노드마다 고유한 bitway.node-id 가 필요합니다");
+        }
+        group = "ws-" + nodeId;
+        subscriptionRegistry.addListener(this);
+        subscriptionRegistry.getSubscribedSymbols().forEach(symbol -> reconcile(symbol, true));
+        reader = new Thread(this::readLoop, "redis-stream-reader");
+        reader.setDaemon(true);
+        reader.start();
+        log.info("Redis Streams 소비 시작: group={}, readCount={}, blockMs={}, resumeMaxAge={}ms",
+                group, readCount, blockMs, resumeMaxAgeMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        reader.interrupt();
+    }
+
+    @Override
+    public void onFirstSubscriber(String symbol) {
+        reconcile(symbol, false);
+    }
+
+    @Override
+    public void onLastUnsubscribed(String symbol) {
+        reconcile(symbol, false);
+    }
+
+    // resume: 시작 시 발견한 그룹이면 마지막 전달 위치에서 이어 읽는다. 아니면 최신으로 옮긴다
+    private synchronized void reconcile(String symbol, boolean resume) {
+        boolean wanted = subscriptionRegistry.getSubscriberCount(symbol) > 0;
+        if (wanted && !streamKeys.containsKey(symbol)) {
+            List<byte[]> keys = new ArrayList<>(CHANNEL_PREFIXES.size());
+            for (String prefix : CHANNEL_PREFIXES) {
+                String key = StreamTradeTransport.streamKey(prefix + symbol);
+                ensureGroup(key, resume);
+                keys.add(key.getBytes(StandardCharsets.UTF_8));
+            }
+            streamKeys.put(symbol, keys);
+            log.info("[Redis Streams] {} 소비 시작 ({}개 심볼)", symbol, streamKeys.size());
+        } else if (!wanted && streamKeys.remove(symbol) != null) {
+            CHANNEL_PREFIXES.forEach(prefix -> liveAfter.remove(StreamTradeTransport.streamKey(prefix + symbol)));
+            log.info("[Redis Streams] {} 소비 중단 ({}개 심볼)", symbol, streamKeys.size());
+        }
+    }
+
+    // 그룹이 없으면 최신($)에서 만든다. 있으면 resume 일 때만 마지막 전달 위치를 유지하고
+    // (그 위치가 resume-max-age-ms 보다 오래됐으면 그 시각까지 건너뜀), 아니면 최신으로 옮긴다.
+    // 과거 체결이 필요한 클라이언트는 since 스냅샷을 요청한다
+    private void ensureGroup(String key, boolean resume) {
+        try {
+            redisTemplate.opsForStream().createGroup(key, ReadOffset.latest(), group);
+            return;
+        } catch (Exception e) {
+            if (!String.valueOf(e.getMessage()).contains("BUSYGROUP")) throw e;
+        }
+        if (!resume) {
+            setId(key, "$");
+        }
+        long floorMs = resumeFloorMs();
+        for (StreamInfo.XInfoGroup info : redisTemplate.opsForStream().groups(key).stream().toList()) {
+            if (!group.equals(info.groupName())) continue;
+            if (!resume) {
+                // pending 에 남은 이전 구독분은 새 위치 이전이므로 내보내지 않고 ack 만 한다
+                liveAfter.put(key, RecordId.of(info.lastDeliveredId()));
+                continue;
+            }
+            if (timestampOf(info.lastDeliveredId()) >= floorMs) continue;
+            setId(key, floorMs + "-0");
+            log.info("[Redis Streams] {} 그룹 위치 {} 가 오래되어 {}-0 으로 이동", key, info.lastDeliveredId(), floorMs);
+        }
+    }
+
+    private void setId(String key, String id) {
+        redisTemplate.execute((RedisCallback<Object>) connection -> connection.execute("XGROUP",
+                "SETID".getBytes(StandardCharsets.UTF_8), key.getBytes(StandardCharsets.UTF_8),
+                group.getBytes(StandardCharsets.UTF_8), id.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readLoop() {
+        Consumer consumer = Consumer.from(group, nodeId);
+        StreamReadOptions options = StreamReadOptions.empty().count(readCount).block(Duration.ofMillis(blockMs));
+        // 시작 시와 lane 이 가득 찼을 때는 이 consumer 의 pending(전달했지만 ack 하지 않은) 항목부터 다시 읽는다
+        boolean pending = true;
+        while (running) {
+            ReadOffset offset = pending ? ReadOffset.from("0") : ReadOffset.lastConsumed();
+            StreamOffset<byte[]>[] streams = streamKeys.values().stream()
+                    .flatMap(List::stream)
+                    .map(key -> StreamOffset.create(key, offset))
+                    .toArray(StreamOffset[]::new);
+            try {
+                if (streams.length == 0) {
+                    Thread.sleep(blockMs);
+                    continue;
+                }
+                List<ByteRecord> records = redisTemplate.execute((RedisCallback<List<ByteRecord>>) connection ->
+                        connection.streamCommands().xReadGroup(consumer, options, streams));
+                if (records == null || records.isEmpty()) {
+                    pending = false;
+                    continue;
+                }
+                if (!deliverAndAck(records)) {
+                    pending = true;
+                    Thread.sleep(blockMs); // lane 이 비워질 시간
+                }
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                if (!running) break;
+                log.warn("[Redis Streams] 읽기 실패: {}", e.getMessage());
+                if (String.valueOf(e.getMessage()).contains("NOGROUP")) {
+                    resetGroups(); // 스트림이 삭제되었거나 만료됨
+                }
+                sleepQuietly(1000);
+            }
+        }
+    }
+
+    // lane 에 넘긴 항목과 건너뛴 항목만 ack 한다. 넘기지 못하면 그 스트림의 뒤 항목도 멈추고 false
+    private boolean deliverAndAck(List<ByteRecord> records) {
+        Map<String, List<RecordId>> acks = new HashMap<>();
+        Set<String> blocked = new HashSet<>();
+        long resumeFloorMs = resumeFloorMs();
+        for (ByteRecord record : records) {
+            byte[] key = record.getStream();
+            String keyName = new String(key, StandardCharsets.UTF_8);
+            if (blocked.contains(keyName)) continue;
+            RecordId after = liveAfter.get(keyName);
+            // 이미 trim 된 pending 항목은 값이 비어 있다
+            if (record.getValue().isEmpty() || timestampOf(record.getId().getValue()) < resumeFloorMs
+                    || (after != null && !isAfter(record.getId(), after))) {
+                skippedCount.incrementAndGet();
+            } else {
+                byte[] channel = Arrays.copyOfRange(key, KEY_PREFIX_LENGTH, key.length);
+                if (!subscriber.deliver(channel, record.getValue().values().iterator().next())) {
+                    blocked.add(keyName);
+                    continue;
+                }
+            }
+            acks.computeIfAbsent(keyName, k -> new ArrayList<>()).add(record.getId());
+        }
+        if (!acks.isEmpty()) {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                acks.forEach((key, ids) -> ack(connection, key, ids));
+                return null;
+            });
+        }
+        return blocked.isEmpty();
+    }
+
+    private void ack(RedisConnection connection, String key, List<RecordId> ids) {
+        connection.streamCommands().xAck(key.getBytes(StandardCharsets.UTF_8), group, ids.toArray(RecordId[]::new));
+    }
+
+    private long resumeFloorMs() {
+        return System.currentTimeMillis() - resumeMaxAgeMs;
+    }
+
+    // 스트림 ID "<ms>-<seq>" 의 ms
+    private static long timestampOf(String id) {
+        int dash = id.indexOf('-');
+        try {
+            return Long.parseLong(dash < 0 ? id : id.substring(0, dash));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static boolean isAfter(RecordId id, RecordId other) {
+        int cmp = Long.compare(id.getTimestamp(), other.getTimestamp());
+        return cmp > 0 || (cmp == 0 && id.getSequence() > other.getSequence());
+    }
+
+    public long getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    private synchronized void resetGroups() {
+        streamKeys.clear();
+        subscriptionRegistry.getSubscribedSymbols().forEach(symbol -> reconcile(symbol, false));
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public Set<String> getSubscribedSymbols() {
+        return new TreeSet<>(streamKeys.keySet());
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.bitwayws.redis.pubsub;
+
+import org.springframework.data.redis.connection.RedisConnection;
+
+// TradeAggPublisher 가 배치 파이프라인 안에서 메시지 한 건을 보내는 방식 (bitway.transport=PUBSUB|STREAMS)
+public interface TradeTransport {
+
+    // channel: trade:<symbol> / analysis:<symbol>
+    void send(RedisConnection connection, byte[] channel, byte[] message);
+
+    String getName();
+}
@@ -0,0 +1,16 @@
+package com.example.bitwayws.redis.service;
+
+import com.example.bitwayws.dto.BinanceAggTradeResDto;
+
+import java.io.IOException;
+import java.util.List;
+
+// 누락 구간 복구용 과거 aggTrade 조회 (Binance REST, 테스트에서는 스텁)
+public interface AggTradeHistorySource {
+
+    // 페이지당 최대 건수
+    int MAX_LIMIT = 1000;
+
+    // aggTradeId >= fromId 인 체결을 id 오름차순으로 최대 limit 건
+    List<BinanceAggTradeResDto> fetchAggTrades(String symbol, long fromId, int limit) throws IOException;
+}
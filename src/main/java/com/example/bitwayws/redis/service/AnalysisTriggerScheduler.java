@@ -0,0 +1,179 @@
+package com.example.bitwayws.redis.service;
+
+import com.example.bitwayws.analysis.TimingWheel;
+import com.example.bitwayws.dto.AnalysisTriggerStatsResDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+// 체결 이벤트 기반 분석 트리거
+// N건 체결 / 고래 체결 / 기준가 대비 가격 변동이면 바로, 그 외에는 첫 미분석 체결 후 interval-ms 안에 분석한다.
+// 같은 심볼은 min-interval-ms 안에 다시 분석하지 않고(debounce) 그 시각으로 미룬다.
+// 지연 실행은 타이밍 휠에 예약하므로 체결이 없는 심볼은 예약도 비용도 없다.
+@Component
+@Slf4j
+public class AnalysisTriggerScheduler {
+
+    public enum Reason {
+        TRADES,
+        INTERVAL,
+        WHALE,
+        PRICE_MOVE
+    }
+
+    // 이 건수만큼 체결되면 분석 (0 이면 사용 안 함)
+    @Value("${bitway.analysis.trigger.trades:500}")
+    private int tradesPerAnalysis;
+
+    // 체결이 있는 동안 최대 분석 간격 (ms)
+    @Value("${bitway.analysis.trigger.interval-ms:10000}")
+    private long intervalMs;
+
+    // 같은 심볼 분석 사이 최소 간격 (ms)
+    @Value("${bitway.analysis.trigger.min-interval-ms:1000}")
+    private long minIntervalMs;
+
+    // 마지막 분석 시점 가격 대비 이 비율 이상 움직이면 분석 (0 이면 사용 안 함)
+    @Value("${bitway.analysis.trigger.price-move:0.005}")
+    private double priceMove;
+
+    @Value("${bitway.analysis.trigger.tick-ms:50}")
+    private long tickMs;
+
+    // 휠 슬롯 수 (2의 거듭제곱). tick-ms x wheel-size 보다 먼 예약은 바퀴 수를 세며 대기
+    @Value("${bitway.analysis.trigger.wheel-size:512}")
+    private int wheelSize;
+
+    private final Map<String, SymbolTrigger> triggers = new ConcurrentHashMap<>();
+    private final AtomicLongArray firedCounts = new AtomicLongArray(Reason.values().length);
+
+    private volatile Consumer<String> handler;
+    private TimingWheel<SymbolTrigger> wheel;
+    private ScheduledExecutorService ticker;
+
+    @PostConstruct
+    public void init() {
+        wheel = new TimingWheel<>(tickMs, wheelSize, System.currentTimeMillis());
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "analysis-trigger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        log.info("분석 트리거: trades={}, interval={}ms, debounce={}ms, priceMove={}, tick={}ms x {}",
+                tradesPerAnalysis, intervalMs, minIntervalMs, priceMove, tickMs, wheelSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    // 트리거가 울리면 심볼을 넘길 곳 (TradeAggAnalysisService 가 분석 실행기에 넘긴다)
+    public void setHandler(Consumer<String> handler) {
+        this.handler = handler;
+    }
+
+    // 샤드 스레드에서 실시간 체결마다 호출
+    public void onTrade(String symbol, double price, boolean whale) {
+        SymbolTrigger trigger = triggers.computeIfAbsent(symbol, SymbolTrigger::new);
+        long now = System.currentTimeMillis();
+        long due;
+        synchronized (trigger) {
+            trigger.trades++;
+            trigger.lastPrice = price;
+            if (trigger.refPrice == 0) trigger.refPrice = price;
+
+            Reason reason = null;
+            if (whale) {
+                reason = Reason.WHALE;
+            } else if (tradesPerAnalysis > 0 && trigger.trades >= tradesPerAnalysis) {
+                reason = Reason.TRADES;
+            } else if (priceMove > 0 && Math.abs(price - trigger.refPrice) >= trigger.refPrice * priceMove) {
+                reason = Reason.PRICE_MOVE;
+            }
+
+            if (reason != null) {
+                due = Math.max(now, trigger.lastFiredAt + minIntervalMs);
+            } else if (trigger.trades == 1) {
+                reason = Reason.INTERVAL; // 첫 미분석 체결: 활동 중 최대 간격 예약
+                due = now + intervalMs;
+            } else {
+                return;
+            }
+            if (due >= trigger.dueAt) return; // 이미 더 이른 예약이 있음
+            trigger.dueAt = due;
+            trigger.dueReason = reason;
+        }
+        if (due <= now) {
+            fire(trigger, now);
+        } else {
+            wheel.schedule(trigger, due);
+        }
+    }
+
+    public void remove(String symbol) {
+        triggers.remove(symbol);
+    }
+
+    private void tick() {
+        try {
+            wheel.advance(System.currentTimeMillis(), trigger -> fire(trigger, System.currentTimeMillis()));
+        } catch (Exception e) {
+            log.error("분석 트리거 tick 실패", e);
+        }
+    }
+
+    // 휠에는 앞당겨지기 전의 예약이 남아 있을 수 있으므로 현재 예약 시각으로 확인한다
+    private void fire(SymbolTrigger trigger, long now) {
+        Reason reason;
+        synchronized (trigger) {
+            if (trigger.dueAt > now) return; // 이미 실행됐거나 다른 시각으로 재예약됨
+            reason = trigger.dueReason;
+            trigger.dueAt = Long.MAX_VALUE;
+            trigger.lastFiredAt = now;
+            trigger.trades = 0;
+            trigger.refPrice = trigger.lastPrice;
+        }
+        if (triggers.get(trigger.symbol) != trigger) return; // 수집 대상에서 빠진 심볼
+        firedCounts.incrementAndGet(reason.ordinal());
+        Consumer<String> current = handler;
+        if (current != null) current.accept(trigger.symbol);
+    }
+
+    public AnalysisTriggerStatsResDto getStats() {
+        return AnalysisTriggerStatsResDto.builder()
+                .symbols(triggers.size())
+                .scheduled(wheel.size())
+                .tradeTriggers(firedCounts.get(Reason.TRADES.ordinal()))
+                .intervalTriggers(firedCounts.get(Reason.INTERVAL.ordinal()))
+                .whaleTriggers(firedCounts.get(Reason.WHALE.ordinal()))
+                .priceMoveTriggers(firedCounts.get(Reason.PRICE_MOVE.ordinal()))
+                .build();
+    }
+
+    // 심볼별 트리거 상태 (guarded by this). 샤드 스레드와 휠 스레드가 공유한다
+    private static final class SymbolTrigger {
+        private final String symbol;
+        private int trades;             // 마지막 분석 이후 체결 수
+        private double refPrice;        // 마지막 분석 시점 가격
+        private double lastPrice;
+        private long lastFiredAt = Long.MIN_VALUE / 2;
+        private long dueAt = Long.MAX_VALUE;
+        private Reason dueReason;
+
+        private SymbolTrigger(String symbol) {
+            this.symbol = symbol;
+        }
+    }
+}
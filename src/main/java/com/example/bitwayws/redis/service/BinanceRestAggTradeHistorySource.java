@@ -0,0 +1,53 @@
+package com.example.bitwayws.redis.service;
+
+import com.example.bitwayws.dto.BinanceAggTradeResDto;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+
+// GET /api/v3/aggTrades?symbol=BTCUSDT&fromId=..&limit=..
+@Component
+@RequiredArgsConstructor
+public class BinanceRestAggTradeHistorySource implements AggTradeHistorySource {
+
+    private static final TypeReference<List<BinanceAggTradeResDto>> TRADE_LIST = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${bitway.binance.rest-url:https://api.binance.com}")
+    private String restUrl;
+
+    private final OkHttpClient client = new OkHttpClient();
+
+    @Override
+    public List<BinanceAggTradeResDto> fetchAggTrades(String symbol, long fromId, int limit) throws IOException {
+        String upperSymbol = symbol.toUpperCase();
+        HttpUrl url = HttpUrl.get(restUrl).newBuilder()
+                .addPathSegments("api/v3/aggTrades")
+                .addQueryParameter("symbol", upperSymbol)
+                .addQueryParameter("fromId", Long.toString(fromId))
+                .addQueryParameter("limit", Integer.toString(Math.min(limit, MAX_LIMIT)))
+                .build();
+
+        try (Response response = client.newCall(new Request.Builder().url(url).build()).execute()) {
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                throw new IOException("aggTrades 조회 실패 " + upperSymbol + " fromId=" + fromId + ": HTTP " + response.code());
+            }
+            // REST 응답에는 심볼(s) 필드가 없다
+            List<BinanceAggTradeResDto> trades = objectMapper.readValue(body.byteStream(), TRADE_LIST);
+            trades.forEach(trade -> trade.setSymbol(upperSymbol));
+            return trades;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.bitwayws.redis.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+// 수집/분석 대상 심볼 목록 (소문자). 수집 클라이언트와 분석 서비스가 모두 이 목록을 따른다.
+// 런타임에 추가/삭제하면 등록된 리스너에게 알린다.
+@Component
+@Slf4j
+public class SymbolRegistry {
+
+    private static final Pattern SYMBOL_PATTERN = Pattern.compile("[a-z0-9]{2,30}");
+
+    // 기동 시 수집할 심볼 (콤마 구분)
+    @Value("${bitway.symbols:btcusdt}")
+    private String[] initialSymbols;
+
+    private final Set<String> symbols = ConcurrentHashMap.newKeySet();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        for (String symbol : initialSymbols) {
+            if (!symbol.isBlank()) add(symbol);
+        }
+        log.info("[심볼] 초기 수집 대상 {}개: {}", symbols.size(), getSymbols());
+    }
+
+    // 새로 추가되었으면 true
+    public boolean add(String symbol) {
+        String normalized = normalize(symbol);
+        if (!symbols.add(normalized)) return false;
+        for (Listener listener : listeners) {
+            try {
+                listener.onSymbolAdded(normalized);
+            } catch (Exception e) {
+                log.error("[심볼] 추가 알림 실패 {}: {}", normalized, e.getMessage(), e);
+            }
+        }
+        return true;
+    }
+
+    // 실제로 제거되었으면 true
+    public boolean remove(String symbol) {
+        String normalized = normalize(symbol);
+        if (!symbols.remove(normalized)) return false;
+        for (Listener listener : listeners) {
+            try {
+                listener.onSymbolRemoved(normalized);
+            } catch (Exception e) {
+                log.error("[심볼] 삭제 알림 실패 {}: {}", normalized, e.getMessage(), e);
+            }
+        }
+        return true;
+    }
+
+    public boolean contains(String symbol) {
+        return symbol != null && symbols.contains(symbol.toLowerCase());
+    }
+
+    // 정렬된 스냅샷
+    public Set<String> getSymbols() {
+        return new TreeSet<>(symbols);
+    }
+
+    public int size() {
+        return symbols.size();
+    }
+
+    // 리스너 등록 직후 getSymbols() 로 현재 목록을 맞추면 누락이 없다 (중복 알림은 리스너가 무시)
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public static String normalize(String symbol) {
+        String normalized = symbol == null ? "" : symbol.trim().toLowerCase();
+        if (!SYMBOL_PATTERN.matcher(normalized).matches()) {
+            throw new IllegalArgumentException("유효하지 않은 심볼입니다: " + symbol);
+        }
+        return normalized;
+    }
+
+    public interface Listener {
+        void onSymbolAdded(String symbol);
+
+        void onSymbolRemoved(String symbol);
+    }
+}
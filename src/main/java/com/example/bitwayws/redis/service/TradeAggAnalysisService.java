@@ -1,31 +1,59 @@
 package com.example.bitwayws.redis.service;
 
+import com.example.bitwayws.analysis.AnalysisDeltaTracker;
+import com.example.bitwayws.analysis.SlidingWindowAnalytics;
+import com.example.bitwayws.analysis.TradeDayAggregator;
+import com.example.bitwayws.analysis.TradeRingBuffer;
+import com.example.bitwayws.analysis.WhaleDetector;
+import com.example.bitwayws.dto.AggTradeSlot;
+import com.example.bitwayws.dto.AnalysisTriggerStatsResDto;
 import com.example.bitwayws.dto.BinanceAggTradeResDto;
 import com.example.bitwayws.dto.TradeAnalysisLogResDto;
-import com.example.bitwayws.dto.WhaleTradeResDto;
+import com.example.bitwayws.dto.TradeWindowStatsResDto;
+import com.example.bitwayws.persistence.TradeHistoryWriter;
+import com.example.bitwayws.redis.handler.TradeAlertIndex;
 import com.example.bitwayws.redis.pubsub.TradeAggPublisher;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.time.Duration;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class TradeAggAnalysisService {
+public class TradeAggAnalysisService implements SymbolRegistry.Listener {
 
     private final TradeAggPublisher tradePublisher;
+    private final SymbolRegistry symbolRegistry;
+    // 이력 저장을 켠 경우에만 존재
+    private final ObjectProvider<TradeHistoryWriter> historyWriterProvider;
+    private final TradeCandleService candleService;
+    private final WhaleConfigService whaleConfigService;
+    private final TradeAlertIndex alertIndex;
+    private final AnalysisTriggerScheduler analysisTrigger;
 
     @Autowired
     private RedisTemplate<String, String> redisTemplate;
@@ -33,192 +61,331 @@ public class TradeAggAnalysisService {
     @Autowired
     private ObjectMapper objectMapper;
 
-    private final Map<String, Long> lastAnalyzedMap = new ConcurrentHashMap<>();
-
-    // Add a trade to the buffer, wrapping with timestamp
-//    public void addTrade(String symbol, BinanceAggTradeResDto trade) {
-//        try {
-//            log.info("[WebSocket 실시간 전송] {} 트레이드 전송 완료", symbol);
-//            String publishJson = objectMapper.writeValueAsString(trade);
-//            tradePublisher.publish(symbol, publishJson);
-//
-//            // Redis에 저장 (누적 저장)
-//            String key = "trades:" + symbol.toLowerCase();
-//            String json = objectMapper.writeValueAsString(trade);
-//            redisTemplate.opsForList().rightPush(key, json);
-//            redisTemplate.opsForList().trim(key, -1000, -1);
-//            redisTemplate.expire(key, Duration.ofDays(1));
-//            log.info("[Redis 저장] {} 트레이드 Redis 저장 완료", symbol);
-//        } catch (Exception e) {
-//            e.printStackTrace();
-//        }
-//    }
-
-    public void processTrade(BinanceAggTradeResDto trade) {
+    // 심볼별 인메모리 체결 버퍼 크기 (2의 거듭제곱)
+    @Value("${bitway.trades.buffer-capacity:1024}")
+    private int tradeBufferCapacity;
+
+    // true 이면 trades:<symbol> Redis 리스트에도 체결을 복제 저장 (내구성 용도, 분석은 읽지 않음)
+    @Value("${bitway.trades.redis-mirror:false}")
+    private boolean redisMirrorEnabled;
+
+    // 당일 집계에 보관할 최근 고래 체결 수
+    @Value("${bitway.analysis.max-whale-trades:100}")
+    private int maxWhaleTrades;
+
+    // 슬라이딩 윈도우 길이 (초)
+    @Value("${bitway.analysis.windows:1,10,60,300,3600}")
+    private int[] windowSeconds;
+
+    // 분석(스냅샷 + JSON + Redis 저장) 전용 스레드 수. 수집 샤드와 분리되어 분석이 수집을 지연시키지 않는다
+    @Value("${bitway.pipeline.analysis-threads:2}")
+    private int analysisThreads;
+
+    // 분석 발행 시 전체 스냅샷(keyframe)을 보내는 간격 (그 사이는 변경분만)
+    @Value("${bitway.analysis.keyframe-every:20}")
+    private int keyframeEvery;
+
+    // 발행 횟수와 별개로 keyframe 을 보내는 최대 간격 (delta 유실 시 클라이언트가 뒤처지는 시간의 상한, ms)
+    @Value("${bitway.analysis.keyframe-interval-ms:30000}")
+    private long keyframeIntervalMs;
+
+    // analysis:<symbol> 리스트에 보관할 keyframe 수
+    @Value("${bitway.analysis.history-size:500}")
+    private int analysisHistorySize;
+
+    private static final int ANALYSIS_WINDOW = 100;
+    private static final String ANALYSIS_LATEST_KEY_PREFIX = "analysis:latest:";
+
+    private final Map<String, TradeRingBuffer> tradeBuffers = new ConcurrentHashMap<>();
+    private final Map<String, TradeDayAggregator> dayAggregators = new ConcurrentHashMap<>();
+    private final Map<String, SlidingWindowAnalytics> windowAnalytics = new ConcurrentHashMap<>();
+    private final Map<String, AnalysisDeltaTracker> deltaTrackers = new ConcurrentHashMap<>();
+    // 마지막으로 발행한 분석의 전체 JSON (구독 스냅샷용)
+    private final Map<String, String> latestAnalysis = new ConcurrentHashMap<>();
+    // 분석 대기 중인 심볼 (심볼당 최대 1개 작업으로 병합)
+    private final Set<String> analysisPending = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService analysisExecutor;
+    private TradeHistoryWriter historyWriter;
+
+    @PostConstruct
+    public void init() {
+        historyWriter = historyWriterProvider.getIfAvailable();
+        symbolRegistry.addListener(this);
+        analysisTrigger.setHandler(this::submitAnalysis);
+        AtomicInteger index = new AtomicInteger();
+        analysisExecutor = new ThreadPoolExecutor(analysisThreads, analysisThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r, "trade-analysis-" + index.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        analysisExecutor.shutdownNow();
+    }
+
+    @Override
+    public void onSymbolAdded(String symbol) {
+        // 심볼별 상태는 첫 체결 수신 시 생성
+    }
+
+    // 수집 대상에서 빠진 심볼의 인메모리 상태 정리
+    @Override
+    public void onSymbolRemoved(String symbol) {
+        tradeBuffers.remove(symbol);
+        dayAggregators.remove(symbol);
+        windowAnalytics.remove(symbol);
+        deltaTrackers.remove(symbol);
+        latestAnalysis.remove(symbol);
+        analysisTrigger.remove(symbol);
+    }
+
+    // rawFrame: 수신한 aggTrade 원문. JSON 인코딩이면 변환 없이 그대로 Redis 로 전달한다
+    // TradeIngestPipeline 의 샤드 스레드에서 호출되므로 한 심볼의 체결은 항상 같은 스레드에서 순서대로 들어온다
+    public void processTrade(AggTradeSlot trade, String rawFrame) {
         if (trade == null) return;
-        publishOnly(trade.getSymbol(), trade);
-        analyzeIfNeeded(trade.getSymbol());
+        String symbol = trade.getSymbol().toLowerCase();
+        int level = apply(symbol, trade);
+        // 알림은 집계 갱신 직후 이 스레드에서 바로 평가 (복구 체결은 지난 체결이라 평가하지 않음)
+        alertIndex.evaluate(symbol, trade, windowsOf(symbol));
+        publishOnly(symbol, trade, rawFrame);
+        analysisTrigger.onTrade(symbol, trade.getPrice(), level == TradeDayAggregator.WHALE_LEVEL);
+    }
+
+    // 누락 구간 복구 체결: 집계만 갱신하고 실시간 발행은 하지 않는다
+    public void applyTrade(AggTradeSlot trade) {
+        apply(trade.getSymbol().toLowerCase(), trade);
+    }
+
+    // 당일 집계가 매긴 체결 레벨을 돌려준다
+    private int apply(String symbol, AggTradeSlot trade) {
+        bufferOf(symbol).append(trade.getAggTradeId(), trade.getPrice(), trade.getQuantity(),
+                trade.getTimestamp(), trade.isBuyerMaker());
+        int level = aggregatorOf(symbol).add(trade.getPrice(), trade.getQuantity(), trade.getTimestamp(), trade.isBuyerMaker());
+        windowsOf(symbol).add(trade.getPrice(), trade.getQuantity(), trade.getTimestamp(), trade.isBuyerMaker());
+        candleService.add(symbol, trade);
+        if (historyWriter != null) historyWriter.appendTrade(symbol, trade);
+        return level;
+    }
+
+    private TradeRingBuffer bufferOf(String symbol) {
+        return tradeBuffers.computeIfAbsent(symbol, s -> new TradeRingBuffer(tradeBufferCapacity));
     }
 
-    private long getTodayStartMillis() {
-        return java.time.ZonedDateTime.now(java.time.ZoneId.of("Asia/Seoul"))
-            .withHour(8).withMinute(0).withSecond(0).withNano(0)
-            .toInstant().toEpochMilli();
+    private TradeDayAggregator aggregatorOf(String symbol) {
+        return dayAggregators.computeIfAbsent(symbol,
+                s -> new TradeDayAggregator(s.toUpperCase(), maxWhaleTrades, whaleConfigService.detectorOf(s)));
+    }
+    private SlidingWindowAnalytics windowsOf(String symbol) {
+        return windowAnalytics.computeIfAbsent(symbol,
+                s -> new SlidingWindowAnalytics(s.toUpperCase(), windowSeconds));
     }
 
 
 
+    // 분석 트리거가 울린 심볼을 분석 실행기에 넘긴다. 이미 대기 중인 심볼이면 병합
+    private void submitAnalysis(String symbol) {
+        if (!analysisPending.add(symbol)) return;
+        try {
+            analysisExecutor.execute(() -> {
+                analysisPending.remove(symbol);
+                analyze(symbol);
+            });
+        } catch (RejectedExecutionException e) {
+            analysisPending.remove(symbol);
+        }
+    }
+
     // Analyze only for trades of a given symbol
-    private void analyzeIfNeeded(String symbol) {
+    private void analyze(String symbol) {
         long now = System.currentTimeMillis();
-        if (now - lastAnalyzedMap.getOrDefault(symbol, 0L) < 10_000) return; // 10초 간격 제한
-        lastAnalyzedMap.put(symbol, now);
-
-        long todayStartTimestamp = getTodayStartMillis();
-        List<BinanceAggTradeResDto> recentTrades = getRecentTrades(symbol).stream()
-            .filter(t -> t.getTimestamp() >= todayStartTimestamp)
-            .toList();
-        if (!recentTrades.isEmpty()) {
-            String sym = recentTrades.get(0).getSymbol();
-            long endTime = recentTrades.stream().mapToLong(BinanceAggTradeResDto::getTimestamp).max().orElse(now);
-            java.time.format.DateTimeFormatter formatter = java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(java.time.ZoneId.of("Asia/Seoul"));
-
-            double buyVolume = recentTrades.stream()
-                    .filter(t -> !t.isBuyerMaker())
-                    .mapToDouble(t -> t.getPrice() * t.getQuantity()).sum();
-
-            double sellVolume = recentTrades.stream()
-                    .filter(BinanceAggTradeResDto::isBuyerMaker)
-                    .mapToDouble(t -> t.getPrice() * t.getQuantity()).sum();
-
-            Map<Integer, Long> levelCounts = recentTrades.stream()
-                    .collect(Collectors.groupingBy(this::classifyTradeLevel, Collectors.counting()));
-
-            List<WhaleTradeResDto> whaleTrades = recentTrades.stream()
-                    .filter(t -> classifyTradeLevel(t) == 11)
-                    .sorted(java.util.Comparator.comparingLong(BinanceAggTradeResDto::getTimestamp))
-                    .map(t -> WhaleTradeResDto.builder()
-                            .side(t.isBuyerMaker() ? "매도" : "매수")
-                            .quantity(t.getQuantity())
-                            .price(t.getPrice())
-                            .total(t.getQuantity() * t.getPrice())
-                            .timestamp(formatter.format(java.time.Instant.ofEpochMilli(t.getTimestamp())))
-                            .build())
-                    .collect(Collectors.toList());
-
-            TradeAnalysisLogResDto logDto = TradeAnalysisLogResDto.builder()
-                    .symbol(sym)
-                    .tradeLevels(levelCounts)
-                    .buyVolume(buyVolume)
-                    .sellVolume(sellVolume)
-                    .diffVolume(Math.abs(buyVolume - sellVolume))
-                    .volatilityDetected(Math.abs(buyVolume - sellVolume) > 1000)
-                    .whaleTrades(whaleTrades)
-                    .latestTradeTime(formatter.format(java.time.Instant.ofEpochMilli(endTime)))
-                    .build();
-
-            try {
-                String json = objectMapper.writeValueAsString(logDto);
-
-                tradePublisher.publish(symbol, json);
-
-                String analysisKey = "analysis:" + symbol.toLowerCase();
+        TradeDayAggregator aggregator = dayAggregators.get(symbol);
+        if (aggregator == null) return;
+
+        // 체결마다 누적된 당일 집계의 스냅샷만 만든다 (재계산 없음)
+        TradeAnalysisLogResDto logDto = aggregator.snapshot(now);
+        if (logDto == null) return;
+
+        AnalysisDeltaTracker tracker = deltaTrackers.computeIfAbsent(symbol, s -> new AnalysisDeltaTracker(keyframeEvery, keyframeIntervalMs));
+        try {
+            String json;
+            AnalysisDeltaTracker.Frame frame;
+            // 같은 심볼 분석이 겹쳐도 seq 순서대로 발행
+            synchronized (tracker) {
+                frame = tracker.next(logDto, now);
+                if (frame == null) return; // 직전 발행과 같으면 보내지도 저장하지도 않는다
+                json = objectMapper.writeValueAsString(logDto);
+                tradePublisher.publishAnalysis(symbol, frame.keyframe() ? json : objectMapper.writeValueAsString(frame.payload()));
+                latestAnalysis.put(symbol, json);
+            }
+            if (historyWriter != null) historyWriter.appendAnalysis(symbol, now, logDto, json);
+
+            // 최신 전체 스냅샷은 덮어쓰고, 리스트에는 keyframe 만 최근 analysisHistorySize 개 보관
+            String latestKey = ANALYSIS_LATEST_KEY_PREFIX + symbol;
+            redisTemplate.opsForValue().set(latestKey, json, Duration.ofDays(1));
+            if (frame.keyframe()) {
+                String analysisKey = "analysis:" + symbol;
                 redisTemplate.opsForList().rightPush(analysisKey, json);
+                redisTemplate.opsForList().trim(analysisKey, -analysisHistorySize, -1);
                 redisTemplate.expire(analysisKey, Duration.ofDays(1));
-            } catch (JsonProcessingException e) {
-                e.printStackTrace();
             }
+        } catch (JsonProcessingException e) {
+            log.error("[분석 직렬화 실패] {}", symbol, e);
+        } catch (Exception e) {
+            log.warn("[분석 저장 실패] {}: {}", symbol, e.getMessage());
         }
     }
 
-    private int classifyTradeLevel(BinanceAggTradeResDto trade) {
-        double amount = trade.getPrice() * trade.getQuantity();
-        if (amount >= 100_000) return 11; // Whale
-        return (int)(amount / 10_000) + 1;
-    }
-
     public Map<Integer, List<BinanceAggTradeResDto>> getTradeLevels(String symbol) {
+        WhaleDetector detector = whaleConfigService.detectorOf(symbol.toLowerCase());
         return getRecentTrades(symbol).stream()
-                .collect(Collectors.groupingBy(this::classifyTradeLevel));
+                .collect(Collectors.groupingBy(trade -> detector.level(trade.getPrice() * trade.getQuantity())));
     }
 
     // Return trades of given symbol
     public List<BinanceAggTradeResDto> getRecentTrades(String symbol) {
-        String key = "trades:" + symbol.toLowerCase();
-        List<String> rawJsonList = redisTemplate.opsForList().range(key, -100, -1);
-        if (rawJsonList == null) return List.of();
-
-        return rawJsonList.stream()
-                .map(json -> {
-                    try {
-                        return objectMapper.readValue(json, BinanceAggTradeResDto.class);
-                    } catch (JsonProcessingException e) {
-                        return null;
-                    }
-                })
-                .filter(Objects::nonNull)
-                .toList();
+        TradeRingBuffer buffer = tradeBuffers.get(symbol.toLowerCase());
+        if (buffer == null) return List.of();
+
+        List<BinanceAggTradeResDto> trades = new ArrayList<>(ANALYSIS_WINDOW);
+        String upperSymbol = symbol.toUpperCase();
+        buffer.forEachRecent(ANALYSIS_WINDOW, Long.MIN_VALUE, (aggTradeId, price, quantity, timestamp, buyerMaker) ->
+                trades.add(toDto(upperSymbol, aggTradeId, price, quantity, timestamp, buyerMaker)));
+        return trades;
     }
 
 
+    // 마지막으로 발행한 분석 전체 스냅샷 JSON (seq 포함). 없으면 null
+    // 수집하지 않는 노드는 인메모리 값이 없으므로 수집 노드가 저장한 analysis:latest:<symbol> 을 읽는다
+    public String getLatestAnalysis(String symbol) {
+        String key = symbol.toLowerCase();
+        String latest = latestAnalysis.get(key);
+        return latest != null ? latest : redisTemplate.opsForValue().get(ANALYSIS_LATEST_KEY_PREFIX + key);
+    }
+
+    // 인메모리 버퍼의 최근 limit 건을 오래된 순서로 방문한다. 방문한 건수를 반환
+    public int visitRecentTrades(String symbol, int limit, TradeRingBuffer.TradeVisitor visitor) {
+        TradeRingBuffer buffer = tradeBuffers.get(symbol.toLowerCase());
+        return buffer == null ? 0 : buffer.forEachRecent(limit, Long.MIN_VALUE, visitor);
+    }
+
+    public int getTradeBufferCapacity() {
+        return tradeBufferCapacity;
+    }
+
     public Map<Integer, Long> getTodaySymbolTradeLevelCounts(String symbol) {
-        return getRecentTrades(symbol).stream()
-                .collect(Collectors.groupingBy(this::classifyTradeLevel, Collectors.counting()));
+        TradeDayAggregator aggregator = dayAggregators.get(symbol.toLowerCase());
+        return aggregator == null ? Map.of() : aggregator.levelCountMap();
     }
 
     public long getWhaleBuyCount(String symbol) {
-        return getRecentTrades(symbol).stream()
-                .filter(t -> !t.isBuyerMaker() && classifyTradeLevel(t) == 11)
-                .count();
+        TradeDayAggregator aggregator = dayAggregators.get(symbol.toLowerCase());
+        return aggregator == null ? 0 : aggregator.getWhaleBuyCount();
     }
 
     public long getWhaleSellCount(String symbol) {
-        return getRecentTrades(symbol).stream()
-                .filter(t -> t.isBuyerMaker() && classifyTradeLevel(t) == 11)
-                .count();
+        TradeDayAggregator aggregator = dayAggregators.get(symbol.toLowerCase());
+        return aggregator == null ? 0 : aggregator.getWhaleSellCount();
     }
 
     public boolean hasRecentVolatility(String symbol, double thresholdUSD) {
-        double buyVolume = getRecentTrades(symbol).stream()
-                .filter(t -> !t.isBuyerMaker())
-                .mapToDouble(t -> t.getPrice() * t.getQuantity())
-                .sum();
+        RecentTradeStats stats = recentStats(symbol);
+        return Math.abs(stats.buyVolume - stats.sellVolume) > thresholdUSD;
+    }
+
+    // 최근 seconds 초 동안의 거래량/불균형/체결 수/VWAP
+    public TradeWindowStatsResDto getWindowStats(String symbol, int seconds) {
+        SlidingWindowAnalytics analytics = windowAnalytics.get(symbol.toLowerCase());
+        if (analytics == null) {
+            return TradeWindowStatsResDto.builder().symbol(symbol.toUpperCase()).windowSeconds(seconds).build();
+        }
+        return analytics.stats(seconds, System.currentTimeMillis());
+    }
+
+    public List<TradeWindowStatsResDto> getAllWindowStats(String symbol) {
+        SlidingWindowAnalytics analytics = windowAnalytics.get(symbol.toLowerCase());
+        if (analytics == null) return List.of();
+        long now = System.currentTimeMillis();
+        return Arrays.stream(analytics.getWindows())
+                .mapToObj(seconds -> analytics.stats(seconds, now))
+                .toList();
+    }
 
-        double sellVolume = getRecentTrades(symbol).stream()
-                .filter(BinanceAggTradeResDto::isBuyerMaker)
-                .mapToDouble(t -> t.getPrice() * t.getQuantity())
-                .sum();
+    // 트리거 현황 + 분석 발행 형태(keyframe/delta/변화 없음) 누적 수
+    public AnalysisTriggerStatsResDto getAnalysisTriggerStats() {
+        AnalysisTriggerStatsResDto stats = analysisTrigger.getStats();
+        for (AnalysisDeltaTracker tracker : deltaTrackers.values()) {
+            stats.setKeyframes(stats.getKeyframes() + tracker.getKeyframeCount());
+            stats.setDeltas(stats.getDeltas() + tracker.getDeltaCount());
+            stats.setUnchanged(stats.getUnchanged() + tracker.getUnchangedCount());
+        }
+        return stats;
+    }
 
-        return Math.abs(buyVolume - sellVolume) > thresholdUSD;
+    private RecentTradeStats recentStats(String symbol) {
+        RecentTradeStats stats = new RecentTradeStats();
+        TradeRingBuffer buffer = tradeBuffers.get(symbol.toLowerCase());
+        if (buffer != null) {
+            buffer.forEachRecent(ANALYSIS_WINDOW, Long.MIN_VALUE, stats);
+        }
+        return stats;
     }
 
     // Scheduled Redis cleanup at 8:00 AM Asia/Seoul
     @Scheduled(cron = "0 0 8 * * *", zone = "Asia/Seoul")
     public void clearYesterdayTrades() {
-        for (String symbol : List.of("btcusdt")) { // Add other symbols if needed
-            redisTemplate.delete("trades:" + symbol.toLowerCase());
-            redisTemplate.delete("analysis:" + symbol.toLowerCase());
+        for (String symbol : symbolRegistry.getSymbols()) {
+            redisTemplate.delete("trades:" + symbol);
+            redisTemplate.delete("analysis:" + symbol);
+            redisTemplate.delete(ANALYSIS_LATEST_KEY_PREFIX + symbol);
         }
+        tradeBuffers.values().forEach(TradeRingBuffer::clear);
     }
 
-    @Scheduled(fixedDelay = 5000) // 5초마다 실행
-    public void scheduledAnalysisTrigger() {
-        List<String> symbols = List.of("btcusdt"); // 여기에 원하는 심볼 추가
-        for (String symbol : symbols) {
-            List<BinanceAggTradeResDto> recentTrades = getRecentTrades(symbol);
-            if (recentTrades.size() >= 10) {
-                analyzeIfNeeded(symbol);
-            }
+    public void publishOnly(String symbol, AggTradeSlot trade, String rawFrame) {
+        tradePublisher.publishTrade(trade, rawFrame);
+        if (redisMirrorEnabled) {
+            mirrorToRedis(symbol, rawFrame);
         }
+        log.debug("[✅ 실시간 전송] {} 거래 데이터 전송 완료", symbol);
     }
 
-    public void publishOnly(String symbol, BinanceAggTradeResDto trade) {
+    // 인메모리 버퍼의 내구성 복제본 (재시작 후 확인용). 분석 경로에서는 읽지 않는다.
+    private void mirrorToRedis(String symbol, String json) {
         try {
-            String json = objectMapper.writeValueAsString(trade);
-            tradePublisher.publish(symbol, json);
-            log.info("[✅ 실시간 전송] {} 거래 데이터 전송 완료", symbol);
-        } catch (JsonProcessingException e) {
-            log.error("[❌ 실시간 전송 실패] {}: {}", symbol, e.getMessage(), e);
+            String key = "trades:" + symbol.toLowerCase();
+            redisTemplate.opsForList().rightPush(key, json);
+            redisTemplate.opsForList().trim(key, -tradeBufferCapacity, -1);
+            redisTemplate.expire(key, Duration.ofDays(1));
+        } catch (Exception e) {
+            log.warn("[Redis 저장 실패] {}: {}", symbol, e.getMessage());
+        }
+    }
+
+    private static BinanceAggTradeResDto toDto(String symbol, long aggTradeId, double price, double quantity,
+                                               long timestamp, boolean buyerMaker) {
+        BinanceAggTradeResDto dto = new BinanceAggTradeResDto();
+        dto.setSymbol(symbol);
+        dto.setAggTradeId(aggTradeId);
+        dto.setPrice(price);
+        dto.setQuantity(quantity);
+        dto.setTimestamp(timestamp);
+        dto.setBuyerMaker(buyerMaker);
+        return dto;
+    }
+
+    // 링 버퍼 1회 순회로 최근 체결의 매수/매도 금액을 집계
+    private static final class RecentTradeStats implements TradeRingBuffer.TradeVisitor {
+        private double buyVolume;
+        private double sellVolume;
+
+        @Override
+        public void accept(long aggTradeId, double price, double quantity, long timestamp, boolean buyerMaker) {
+            if (buyerMaker) sellVolume += price * quantity;
+            else buyVolume += price * quantity;
         }
     }
-}
\ No newline at end of file
+}
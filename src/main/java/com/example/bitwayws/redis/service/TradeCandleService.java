@@ -0,0 +1,120 @@
+package com.example.bitwayws.redis.service;
+
+import com.example.bitwayws.analysis.CandleAggregator;
+import com.example.bitwayws.dto.AggTradeSlot;
+import com.example.bitwayws.dto.CandleResDto;
+import com.example.bitwayws.redis.pubsub.TradeAggPublisher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// 심볼별 캔들 집계와 닫힌 캔들 발행 (candle:<symbol> 채널)
+// 체결은 샤드 스레드에서 더하고, 체결이 끊긴 동안에도 캔들이 닫히도록 별도 ticker 가 주기적으로 마감한다.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TradeCandleService implements SymbolRegistry.Listener {
+
+    private final TradeAggPublisher tradePublisher;
+    private final SymbolRegistry symbolRegistry;
+    private final ObjectMapper objectMapper;
+
+    // 단위별 보관할 닫힌 캔들 수
+    @Value("${bitway.candles.history-size:1000}")
+    private int historySize;
+
+    // 구간이 끝난 뒤 늦게 오는 체결을 기다리는 시간 (ms)
+    @Value("${bitway.candles.close-grace-ms:1000}")
+    private long closeGraceMs;
+
+    // 닫힐 때 구독자에게 보낼 단위
+    @Value("${bitway.candles.push-intervals:1s,1m,5m,1h,1d}")
+    private String[] pushIntervals;
+
+    private final Map<String, CandleAggregator> aggregators = new ConcurrentHashMap<>();
+    private Set<String> pushed;
+    private ScheduledExecutorService ticker;
+
+    @PostConstruct
+    public void init() {
+        symbolRegistry.addListener(this);
+        pushed = Arrays.stream(pushIntervals).map(String::trim).collect(Collectors.toSet());
+        pushed.forEach(CandleAggregator::levelOf); // 잘못된 단위면 기동 실패
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "candle-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::closeExpired, 250, 250, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    @Override
+    public void onSymbolAdded(String symbol) {
+    }
+
+    @Override
+    public void onSymbolRemoved(String symbol) {
+        aggregators.remove(symbol);
+    }
+
+    // 샤드 스레드에서 호출 (실시간/복구 체결 모두)
+    public void add(String symbol, AggTradeSlot trade) {
+        List<CandleResDto> closed = new ArrayList<>(0);
+        aggregatorOf(symbol).add(trade.getPrice(), trade.getQuantity(), trade.getTimestamp(), trade.isBuyerMaker(), closed);
+        publish(symbol, closed);
+    }
+
+    public List<CandleResDto> getCandles(String symbol, String interval, int limit) {
+        int level = CandleAggregator.levelOf(interval);
+        CandleAggregator aggregator = aggregators.get(symbol.toLowerCase());
+        return aggregator == null ? List.of() : aggregator.recent(level, limit);
+    }
+
+    private CandleAggregator aggregatorOf(String symbol) {
+        return aggregators.computeIfAbsent(symbol, s -> new CandleAggregator(s.toUpperCase(), historySize));
+    }
+
+    private void closeExpired() {
+        long now = System.currentTimeMillis() - closeGraceMs;
+        aggregators.forEach((symbol, aggregator) -> {
+            try {
+                List<CandleResDto> closed = new ArrayList<>(0);
+                aggregator.closeExpired(now, closed);
+                publish(symbol, closed);
+            } catch (Exception e) {
+                log.error("[캔들] {} 마감 실패: {}", symbol, e.getMessage(), e);
+            }
+        });
+    }
+
+    private void publish(String symbol, List<CandleResDto> closed) {
+        for (CandleResDto candle : closed) {
+            if (!pushed.contains(candle.getInterval())) continue;
+            try {
+                tradePublisher.publishCandle(symbol, objectMapper.writeValueAsString(candle));
+            } catch (Exception e) {
+                log.warn("[캔들] {} {} 발행 실패: {}", symbol, candle.getInterval(), e.getMessage());
+            }
+        }
+    }
+}
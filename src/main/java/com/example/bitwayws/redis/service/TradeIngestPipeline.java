@@ -0,0 +1,137 @@
+package com.example.bitwayws.redis.service;
+
+import com.example.bitwayws.analysis.TradeShardRing;
+import com.example.bitwayws.dto.AggTradeSlot;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// 심볼 해시로 체결을 N개의 단일 스레드 샤드에 분배하는 수집 파이프라인
+// 수신 스레드: 파싱 → 샤드 큐 적재 / 샤드 스레드: 시퀀스 검사 + 집계 갱신 + 발행 큐 적재 / 분석 실행기: 스냅샷 생성
+// 같은 심볼은 항상 같은 샤드에서 순서대로 처리되고, 심볼별 집계는 그 샤드 스레드만 갱신한다.
+// 수집 노드에서만 생성된다 (bitway.ingest.enabled)
+@Component
+@ConditionalOnProperty(name = "bitway.ingest.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+@RequiredArgsConstructor
+public class TradeIngestPipeline {
+
+    private final TradeSequenceTracker sequenceTracker;
+
+    // 샤드 수 (0 이하이면 CPU 코어 수)
+    @Value("${bitway.pipeline.shards:0}")
+    private int shardCount;
+
+    // 샤드별 입력 큐 크기 (2의 거듭제곱)
+    @Value("${bitway.pipeline.ring-capacity:8192}")
+    private int ringCapacity;
+
+    private Shard[] shards;
+
+    @PostConstruct
+    public void start() {
+        int count = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard(i, new TradeShardRing(ringCapacity));
+            shards[i].thread.start();
+        }
+        log.info("수집 파이프라인 시작: shards={}, ringCapacity={}", count, ringCapacity);
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (Shard shard : shards) {
+            shard.running = false;
+            shard.thread.interrupt();
+        }
+    }
+
+    // 수신 스레드에서 호출. trade 는 호출 직후 재사용해도 된다 (샤드 슬롯에 복사)
+    // 샤드 큐가 가득 차면 기다리지 않고 버린다 (누락 구간은 다음 체결에서 감지해 REST 로 복구)
+    public void submit(AggTradeSlot trade, String rawFrame) {
+        Shard shard = shardOf(trade.getSymbol());
+        if (!shard.ring.offer(trade, rawFrame)) {
+            long dropped = shard.ring.getDroppedCount();
+            if (dropped % 1000 == 1) {
+                log.warn("샤드 {} 큐가 가득 차 체결을 버렸습니다: {} (샤드 누적 {}건)", shard.index, trade.getSymbol(), dropped);
+            }
+        }
+    }
+
+    // 대소문자와 무관하게 같은 심볼은 같은 샤드
+    private Shard shardOf(String symbol) {
+        int h = 0;
+        for (int i = 0; i < symbol.length(); i++) {
+            h = 31 * h + Character.toLowerCase(symbol.charAt(i));
+        }
+        return shards[Math.floorMod(h ^ (h >>> 16), shards.length)];
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    // 샤드별 대기 체결 수
+    public int[] getQueueDepths() {
+        int[] depths = new int[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            depths[i] = shards[i].ring.size();
+        }
+        return depths;
+    }
+
+    // 샤드별 큐 초과로 버린 체결 수
+    public long[] getDroppedCounts() {
+        long[] dropped = new long[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            dropped[i] = shards[i].ring.getDroppedCount();
+        }
+        return dropped;
+    }
+
+    private final class Shard implements Runnable {
+
+        private final int index;
+        private final TradeShardRing ring;
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        Shard(int index, TradeShardRing ring) {
+            this.index = index;
+            this.ring = ring;
+            this.thread = new Thread(this, "trade-shard-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                long from;
+                long to;
+                try {
+                    from = ring.getReadSeq();
+                    to = ring.awaitAvailable(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                // 락 밖에서 묶음 처리 후 한 번에 반환
+                for (long seq = from; seq < to; seq++) {
+                    try {
+                        sequenceTracker.accept(ring.slotAt(seq), ring.rawFrameAt(seq));
+                    } catch (Exception e) {
+                        log.error("❌ 샤드 {} 체결 처리 오류: {}", index, e.getMessage(), e);
+                    }
+                }
+                if (to > from) ring.release(to);
+            }
+            log.info("샤드 {} 종료", index);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.bitwayws.redis.service;
+
+import com.example.bitwayws.dto.AggTradeSlot;
+import com.example.bitwayws.dto.BinanceAggTradeResDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 심볼별 aggTradeId 연속성 검사
+// 중복은 버리고, 구간이 비면 그 심볼의 실시간 체결을 잠시 보관한 채 과거 체결(REST)로 누락분을 채운 뒤 보관분을 이어서 처리한다.
+// 복구된 체결은 집계만 갱신하고 실시간 발행은 하지 않는다.
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class TradeSequenceTracker implements SymbolRegistry.Listener {
+
+    private final TradeAggAnalysisService tradeAnalysisService;
+    private final AggTradeHistorySource historySource;
+    private final SymbolRegistry symbolRegistry;
+
+    // 누락 구간을 나눠 동시에 조회할 페이지 수
+    @Value("${bitway.backfill.parallelism:4}")
+    private int parallelism;
+
+    // 한 번에 복구할 최대 체결 수 (초과분은 가장 오래된 쪽을 포기)
+    @Value("${bitway.backfill.max-trades:500000}")
+    private long maxBackfillTrades;
+
+    // 복구 중 심볼별로 보관할 실시간 체결 수
+    @Value("${bitway.backfill.max-pending:100000}")
+    private int maxPending;
+
+    @Value("${bitway.backfill.max-retries:3}")
+    private int maxRetries;
+
+    private final Map<String, SymbolSequence> sequences = new ConcurrentHashMap<>();
+
+    private ExecutorService recoveryExecutor;
+    private ExecutorService pageExecutor;
+
+    @PostConstruct
+    public void init() {
+        symbolRegistry.addListener(this);
+        AtomicInteger recoveryIndex = new AtomicInteger();
+        recoveryExecutor = Executors.newFixedThreadPool(2, r -> {
+            Thread thread = new Thread(r, "trade-recovery-" + recoveryIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger pageIndex = new AtomicInteger();
+        pageExecutor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "trade-backfill-" + pageIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        recoveryExecutor.shutdownNow();
+        pageExecutor.shutdownNow();
+    }
+
+    @Override
+    public void onSymbolAdded(String symbol) {
+    }
+
+    @Override
+    public void onSymbolRemoved(String symbol) {
+        sequences.remove(symbol);
+    }
+
+    // 샤드 스레드에서 호출. 복구 중인 심볼의 체결은 보관만 하고 바로 반환한다
+    public void accept(AggTradeSlot trade, String rawFrame) {
+        String symbol = trade.getSymbol().toLowerCase();
+        SymbolSequence sequence = sequences.computeIfAbsent(symbol, SymbolSequence::new);
+        long id = trade.getAggTradeId();
+
+        synchronized (sequence) {
+            if (sequence.recovering) {
+                sequence.hold(trade, rawFrame, maxPending);
+                return;
+            }
+            if (sequence.lastId >= 0 && id <= sequence.lastId) {
+                sequence.duplicates++;
+                return;
+            }
+            if (sequence.lastId >= 0 && id > sequence.lastId + 1) {
+                sequence.gaps++;
+                sequence.recovering = true;
+                sequence.hold(trade, rawFrame, maxPending);
+                log.warn("[시퀀스] {} 누락 감지: {} ~ {} ({}건), 복구 시작", symbol, sequence.lastId + 1, id - 1, id - 1 - sequence.lastId);
+                recoveryExecutor.execute(() -> recover(sequence));
+                return;
+            }
+            sequence.lastId = id;
+        }
+        tradeAnalysisService.processTrade(trade, rawFrame);
+    }
+
+    // 복구 스레드: 누락분 복구 → 보관분 처리. 보관분이 빌 때까지 반복한 뒤 샤드 스레드에 처리를 돌려준다
+    private void recover(SymbolSequence sequence) {
+        try {
+            while (true) {
+                ArrayDeque<PendingTrade> batch;
+                synchronized (sequence) {
+                    if (sequence.pending.isEmpty()) {
+                        if (sequence.overflowed > 0) {
+                            log.warn("[시퀀스] {} 복구 중 보관 한도 초과로 {}건 버림 (다음 체결에서 재복구)", sequence.symbol, sequence.overflowed);
+                            sequence.overflowed = 0;
+                        }
+                        sequence.recovering = false;
+                        return;
+                    }
+                    batch = sequence.pending;
+                    sequence.pending = new ArrayDeque<>();
+                }
+                for (PendingTrade pending : batch) {
+                    long id = pending.trade.getAggTradeId();
+                    if (id <= sequence.lastId) {
+                        sequence.duplicates++;
+                        continue;
+                    }
+                    if (id > sequence.lastId + 1) {
+                        backfill(sequence, sequence.lastId + 1, id - 1);
+                    }
+                    sequence.lastId = id;
+                    tradeAnalysisService.processTrade(pending.trade, pending.rawFrame);
+                }
+            }
+        } catch (Exception e) {
+            log.error("[시퀀스] {} 복구 실패: {}", sequence.symbol, e.getMessage(), e);
+            synchronized (sequence) {
+                sequence.pending.clear();
+                sequence.recovering = false;
+            }
+        }
+    }
+
+    // [fromId, toId] 를 페이지 단위로 나눠 병렬 조회한 뒤 id 순서대로 집계에 반영
+    private void backfill(SymbolSequence sequence, long fromId, long toId) {
+        if (toId - fromId + 1 > maxBackfillTrades) {
+            long skipped = toId - fromId + 1 - maxBackfillTrades;
+            log.warn("[시퀀스] {} 누락 구간이 커서 앞쪽 {}건은 복구하지 않습니다", sequence.symbol, skipped);
+            fromId = toId - maxBackfillTrades + 1;
+        }
+
+        List<Future<List<BinanceAggTradeResDto>>> pages = new ArrayList<>();
+        for (long pageStart = fromId; pageStart <= toId; pageStart += AggTradeHistorySource.MAX_LIMIT) {
+            long start = pageStart;
+            int limit = (int) Math.min(AggTradeHistorySource.MAX_LIMIT, toId - start + 1);
+            pages.add(pageExecutor.submit(() -> fetchWithRetry(sequence.symbol, start, limit)));
+        }
+
+        long expected = fromId;
+        long recovered = 0;
+        AggTradeSlot slot = new AggTradeSlot();
+        for (Future<List<BinanceAggTradeResDto>> page : pages) {
+            List<BinanceAggTradeResDto> trades;
+            try {
+                trades = page.get();
+            } catch (ExecutionException e) {
+                log.error("[시퀀스] {} 페이지 조회 실패: {}", sequence.symbol, e.getCause().getMessage());
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            for (BinanceAggTradeResDto trade : trades) {
+                long id = trade.getAggTradeId();
+                if (id < expected || id > toId) continue;
+                slot.setAggTradeId(id);
+                slot.setPrice(trade.getPrice());
+                slot.setQuantity(trade.getQuantity());
+                slot.setTimestamp(trade.getTimestamp());
+                slot.setBuyerMaker(trade.isBuyerMaker());
+                slot.setSymbol(trade.getSymbol());
+                tradeAnalysisService.applyTrade(slot);
+                expected = id + 1;
+                recovered++;
+            }
+        }
+        sequence.backfilled += recovered;
+        long missing = toId - fromId + 1 - recovered;
+        if (missing > 0) {
+            log.warn("[시퀀스] {} 복구 {}건, 끝내 누락 {}건", sequence.symbol, recovered, missing);
+        } else {
+            log.info("[시퀀스] {} 누락 {}건 복구 완료", sequence.symbol, recovered);
+        }
+    }
+
+    private List<BinanceAggTradeResDto> fetchWithRetry(String symbol, long fromId, int limit) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return historySource.fetchAggTrades(symbol, fromId, limit);
+            } catch (Exception e) {
+                if (attempt >= maxRetries) throw e;
+                Thread.sleep(200L * attempt);
+            }
+        }
+    }
+
+    public long getDuplicateCount(String symbol) {
+        SymbolSequence sequence = sequences.get(symbol.toLowerCase());
+        return sequence == null ? 0 : sequence.duplicates;
+    }
+
+    public long getGapCount(String symbol) {
+        SymbolSequence sequence = sequences.get(symbol.toLowerCase());
+        return sequence == null ? 0 : sequence.gaps;
+    }
+
+    public long getBackfilledCount(String symbol) {
+        SymbolSequence sequence = sequences.get(symbol.toLowerCase());
+        return sequence == null ? 0 : sequence.backfilled;
+    }
+
+    public boolean isRecovering(String symbol) {
+        SymbolSequence sequence = sequences.get(symbol.toLowerCase());
+        return sequence != null && sequence.recovering;
+    }
+
+    // 처리 주체(샤드 스레드 또는 복구 스레드)는 항상 하나이며 recovering 전환은 락 안에서 일어난다
+    private static final class SymbolSequence {
+        private final String symbol;
+        private volatile long lastId = -1;
+        private volatile boolean recovering;
+        private ArrayDeque<PendingTrade> pending = new ArrayDeque<>();
+        private long overflowed;
+        private volatile long duplicates;
+        private volatile long gaps;
+        private volatile long backfilled;
+
+        private SymbolSequence(String symbol) {
+            this.symbol = symbol;
+        }
+
+        private void hold(AggTradeSlot trade, String rawFrame, int maxPending) {
+            if (pending.size() >= maxPending) {
+                overflowed++;
+                return;
+            }
+            AggTradeSlot copy = new AggTradeSlot();
+            copy.copyFrom(trade);
+            pending.addLast(new PendingTrade(copy, rawFrame));
+        }
+    }
+
+    private record PendingTrade(AggTradeSlot trade, String rawFrame) {
+    }
+}
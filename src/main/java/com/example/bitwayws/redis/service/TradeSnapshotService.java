@@ -0,0 +1,265 @@
+package com.example.bitwayws.redis.service;
+
+import com.example.bitwayws.analysis.CandleAggregator;
+import com.example.bitwayws.dto.AggTradeSlot;
+import com.example.bitwayws.dto.CandleResDto;
+import com.example.bitwayws.redis.pubsub.TradeFrameDecoder;
+import com.example.bitwayws.redis.pubsub.TradeHistoryReader;
+import com.example.bitwayws.websocket.AggTradeParser;
+import com.example.bitwayws.websocket.AsciiCharSequence;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// 새 구독자에게 보내는 심볼 상태 스냅샷
+// {"type":"snapshot","symbol":..,"lastTradeId":..,"firstTradeId":..|null,"complete":true|false,
+//  "analysis":{..}|null,"windows":[..],"candles":{"1m":[..],..},"trades":[aggTrade,..]}
+// 분석/윈도우/캔들/기본 체결 목록은 심볼별로 cache-ms 동안 Caffeine 에 두어, 배포 직후 재접속이 몰려도 심볼당 한 번만 만든다.
+// 캐시 이후의 체결은 요청마다 인메모리 버퍼에서 덧붙이므로 trades 는 lastTradeId 까지 빠짐없이 이어진다.
+// 인메모리 버퍼가 요청 구간을 담고 있지 않으면(fan-out 노드, 기동 직후) Streams 기록으로 채운다.
+// complete 는 since 요청에서 trades 가 since 직후부터 끊김 없이 이어지는지를 뜻한다. false 면 클라이언트가 firstTradeId 이전을 따로 채워야 한다.
+@Service
+@RequiredArgsConstructor
+public class TradeSnapshotService {
+
+    private final TradeAggAnalysisService analysisService;
+    private final TradeCandleService candleService;
+    private final ObjectMapper objectMapper;
+    // Streams 전송 모드에서만 존재 (인메모리 버퍼에 없는 체결용)
+    private final ObjectProvider<TradeHistoryReader> historyReader;
+
+    // history/since 없이 구독할 때 보낼 최근 체결 수
+    @Value("${bitway.ws.snapshot.trades:100}")
+    private int defaultTrades;
+
+    // 스냅샷으로 보낼 최대 체결 수
+    @Value("${bitway.ws.snapshot.max-trades:1000}")
+    private int maxTrades;
+
+    // 스냅샷에 담을 캔들 단위와 단위별 개수 (진행 중인 캔들 포함)
+    @Value("${bitway.ws.snapshot.candle-intervals:1m,5m,1h}")
+    private String[] candleIntervals;
+
+    @Value("${bitway.ws.snapshot.candles:60}")
+    private int candleLimit;
+
+    // 심볼별 기본 스냅샷 캐시 유지 시간 (ms)
+    @Value("${bitway.ws.snapshot.cache-ms:500}")
+    private long cacheMs;
+
+    private Cache<String, Base> cache;
+
+    @PostConstruct
+    public void init() {
+        candleIntervals = Arrays.stream(candleIntervals).map(String::trim).filter(s -> !s.isEmpty()).toArray(String[]::new);
+        Arrays.stream(candleIntervals).forEach(CandleAggregator::levelOf); // 잘못된 단위면 기동 실패
+        cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(cacheMs))
+                .maximumSize(10_000)
+                .build();
+    }
+
+    // history: 최근 N건, since: 이 aggTradeId 이후 체결. 둘 다 없으면 기본 건수
+    public Snapshot snapshot(String symbol, Integer history, Long since) {
+        Base base = cache.get(symbol, this::build);
+        List<byte[]> trades;
+        long lastTradeId;
+        boolean complete = true;
+        if (since != null) {
+            SinceTrades result = tradesSince(symbol, since);
+            trades = result.frames;
+            complete = result.complete;
+            lastTradeId = trades.isEmpty() ? since : Math.max(since, idOf(trades.get(trades.size() - 1), since));
+        } else if (history != null && history != defaultTrades) {
+            RingTrades ring = recentTrades(symbol, Long.MIN_VALUE, Math.max(0, Math.min(history, maxTrades)));
+            trades = ring.frames;
+            lastTradeId = ring.lastId;
+        } else {
+            // 캐시된 목록 + 그 이후 체결 중 최근 기본 건수
+            RingTrades tail = recentTrades(symbol, base.lastTradeId, defaultTrades);
+            trades = new ArrayList<>(base.trades.size() + tail.frames.size());
+            trades.addAll(base.trades);
+            trades.addAll(tail.frames);
+            if (trades.size() > defaultTrades) trades = trades.subList(trades.size() - defaultTrades, trades.size());
+            lastTradeId = tail.frames.isEmpty() ? base.lastTradeId : tail.lastId;
+        }
+        Long firstTradeId = trades.isEmpty() ? null : idOf(trades.get(0), -1);
+        return new Snapshot(frame(symbol, base, trades, lastTradeId, firstTradeId, complete), lastTradeId);
+    }
+
+    // 실시간 체결이 건너뛴 (afterId, beforeId) 구간을 인메모리 버퍼에서, 버퍼에 없으면 Streams 기록에서 채운다
+    public List<byte[]> tradesBetween(String symbol, long afterId, long beforeId) {
+        RingTrades ring = ringTrades(symbol, afterId, analysisService.getTradeBufferCapacity());
+        TradeHistoryReader reader = historyReader.getIfAvailable();
+        List<byte[]> source = ring.oldestId > afterId + 1 && reader != null
+                ? reader.tradesSince(symbol, afterId, maxTrades) : ring.frames;
+        List<byte[]> frames = new ArrayList<>();
+        for (byte[] frame : source) {
+            if (idOf(frame, Long.MAX_VALUE) < beforeId) frames.add(frame);
+        }
+        return frames;
+    }
+
+    private Base build(String symbol) {
+        try {
+            String analysis = analysisService.getLatestAnalysis(symbol);
+            byte[] windows = objectMapper.writeValueAsBytes(analysisService.getAllWindowStats(symbol));
+            Map<String, List<CandleResDto>> candles = new LinkedHashMap<>();
+            for (String interval : candleIntervals) {
+                candles.put(interval, candleService.getCandles(symbol, interval, candleLimit));
+            }
+            RingTrades ring = recentTrades(symbol, Long.MIN_VALUE, defaultTrades);
+            return new Base(analysis == null ? null : analysis.getBytes(StandardCharsets.UTF_8),
+                    windows, objectMapper.writeValueAsBytes(candles), ring.frames, ring.lastId);
+        } catch (Exception e) {
+            throw new IllegalStateException("스냅샷 생성 실패: " + symbol, e);
+        }
+    }
+
+    // 인메모리 버퍼가 since 직후부터 담고 있으면 버퍼만, 아니면 Streams 기록 + 그 이후 버퍼 체결
+    // 버퍼가 since 직후를 담고 있지 않은데 Streams 가 없거나(PUBSUB) Streams 도 잘렸으면 complete=false
+    private SinceTrades tradesSince(String symbol, long since) {
+        RingTrades ring = ringTrades(symbol, since, maxTrades);
+        if (ring.oldestId <= since + 1) {
+            // since 이후 체결이 maxTrades 를 넘어 앞부분을 잘랐으면 이어지지 않는다
+            return new SinceTrades(ring.frames, ring.ids.length == 0 || ring.ids[0] == since + 1);
+        }
+        TradeHistoryReader reader = historyReader.getIfAvailable();
+        List<byte[]> older = reader == null ? List.of() : reader.tradesSince(symbol, since, maxTrades);
+        if (older.isEmpty()) return new SinceTrades(ring.frames, false);
+
+        long olderLast = idOf(older.get(older.size() - 1), since);
+        List<byte[]> trades = new ArrayList<>(older);
+        for (int i = 0; i < ring.frames.size(); i++) {
+            if (ring.ids[i] > olderLast) trades.add(ring.frames.get(i));
+        }
+        if (trades.size() > maxTrades) trades = trades.subList(trades.size() - maxTrades, trades.size());
+        return new SinceTrades(trades, isContiguous(trades, since));
+    }
+
+    // aggTradeId 가 since + 1 부터 1씩 빠짐없이 이어지는지
+    private static boolean isContiguous(List<byte[]> trades, long since) {
+        AggTradeParser parser = new AggTradeParser();
+        AsciiCharSequence view = new AsciiCharSequence();
+        AggTradeSlot slot = new AggTradeSlot();
+        long expected = since + 1;
+        for (byte[] trade : trades) {
+            try {
+                if (!parser.parse(view.wrap(trade), slot) || slot.getAggTradeId() != expected) return false;
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+            expected++;
+        }
+        return true;
+    }
+
+    // aggTradeId > afterId 인 최근 limit 건 (오래된 순). 인메모리 버퍼가 afterId 직후까지 거슬러 가지 못하고
+    // limit 건도 채우지 못하면 Streams 의 최근 기록을 앞에 붙인다 (lastId 도 그 기록 기준)
+    private RingTrades recentTrades(String symbol, long afterId, int limit) {
+        RingTrades ring = ringTrades(symbol, afterId, limit);
+        TradeHistoryReader reader = historyReader.getIfAvailable();
+        if (reader == null || ring.frames.size() >= limit || ring.oldestId <= afterId + 1) return ring;
+
+        List<byte[]> stored = reader.recentTrades(symbol, limit);
+        long ringFirst = ring.ids.length == 0 ? Long.MAX_VALUE : ring.ids[0];
+        List<byte[]> frames = new ArrayList<>(stored.size() + ring.frames.size());
+        List<Long> ids = new ArrayList<>(stored.size() + ring.frames.size());
+        for (byte[] frame : stored) {
+            long id = idOf(frame, -1);
+            if (id < 0 || id <= afterId || id >= ringFirst) continue;
+            frames.add(frame);
+            ids.add(id);
+        }
+        if (frames.isEmpty()) return ring;
+        frames.addAll(ring.frames);
+        for (long id : ring.ids) ids.add(id);
+
+        int from = Math.max(0, frames.size() - limit);
+        long[] kept = ids.subList(from, ids.size()).stream().mapToLong(Long::longValue).toArray();
+        return new RingTrades(new ArrayList<>(frames.subList(from, frames.size())), kept,
+                kept[kept.length - 1], Math.min(ring.oldestId, ids.get(0)));
+    }
+
+    // 인메모리 버퍼에서 aggTradeId > afterId 인 최근 limit 건 (오래된 순)
+    private RingTrades ringTrades(String symbol, long afterId, int limit) {
+        List<byte[]> frames = new ArrayList<>();
+        long[] ids = new long[analysisService.getTradeBufferCapacity()];
+        long[] oldest = {Long.MAX_VALUE};
+        StringBuilder json = new StringBuilder(160);
+        String upperSymbol = symbol.toUpperCase();
+        analysisService.visitRecentTrades(symbol, ids.length,
+                (aggTradeId, price, quantity, timestamp, buyerMaker) -> {
+                    oldest[0] = Math.min(oldest[0], aggTradeId);
+                    if (aggTradeId <= afterId) return;
+                    ids[frames.size()] = aggTradeId;
+                    frames.add(TradeFrameDecoder.tradeJson(json, upperSymbol, aggTradeId, price, quantity, timestamp, buyerMaker));
+                });
+        int from = Math.max(0, frames.size() - limit);
+        long[] kept = Arrays.copyOfRange(ids, from, frames.size());
+        return new RingTrades(new ArrayList<>(frames.subList(from, frames.size())), kept,
+                kept.length == 0 ? Math.max(afterId, -1L) : kept[kept.length - 1], oldest[0]);
+    }
+
+    private static byte[] frame(String symbol, Base base, List<byte[]> trades, long lastTradeId,
+                                Long firstTradeId, boolean complete) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256 + base.windows.length + base.candles.length
+                + (base.analysis == null ? 4 : base.analysis.length) + trades.size() * 160);
+        write(out, "{\"type\":\"snapshot\",\"symbol\":\"" + symbol + "\",\"lastTradeId\":" + lastTradeId
+                + ",\"firstTradeId\":" + firstTradeId + ",\"complete\":" + complete + ",\"analysis\":");
+        out.writeBytes(base.analysis == null ? "null".getBytes(StandardCharsets.US_ASCII) : base.analysis);
+        write(out, ",\"windows\":");
+        out.writeBytes(base.windows);
+        write(out, ",\"candles\":");
+        out.writeBytes(base.candles);
+        write(out, ",\"trades\":[");
+        for (int i = 0; i < trades.size(); i++) {
+            if (i > 0) out.write(',');
+            out.writeBytes(trades.get(i));
+        }
+        write(out, "]}");
+        return out.toByteArray();
+    }
+
+    private static void write(ByteArrayOutputStream out, String text) {
+        out.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // aggTrade JSON 의 aggTradeId. 해석할 수 없으면 fallback
+    private static long idOf(byte[] frame, long fallback) {
+        AggTradeSlot slot = new AggTradeSlot();
+        try {
+            return new AggTradeParser().parse(new AsciiCharSequence().wrap(frame), slot) ? slot.getAggTradeId() : fallback;
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+
+    // frame: UTF-8 JSON, lastTradeId: 스냅샷 trades 의 마지막 aggTradeId (체결이 없으면 -1 또는 since)
+    public record Snapshot(byte[] frame, long lastTradeId) {
+    }
+
+    // 캐시되는 기본 스냅샷 (이미 직렬화된 조각)
+    private record Base(byte[] analysis, byte[] windows, byte[] candles, List<byte[]> trades, long lastTradeId) {
+    }
+
+    private record RingTrades(List<byte[]> frames, long[] ids, long lastId, long oldestId) {
+    }
+
+    private record SinceTrades(List<byte[]> frames, boolean complete) {
+    }
+}
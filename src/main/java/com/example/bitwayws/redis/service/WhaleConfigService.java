@@ -0,0 +1,143 @@
+package com.example.bitwayws.redis.service;
+
+import com.example.bitwayws.analysis.WhaleDetector;
+import com.example.bitwayws.dto.WhaleThresholdResDto;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 심볼별 고래/레벨/변동성 기준
+// 기본 모드와 값은 설정에서, 심볼별 고정 값은 bitway.whale.symbol-usd 또는 /api/whale/{symbol} 로 바꾼다.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WhaleConfigService implements SymbolRegistry.Listener {
+
+    private final SymbolRegistry symbolRegistry;
+
+    // 기본 모드: FIXED(고정 금액) | ADAPTIVE(체결 금액 분위수)
+    @Value("${bitway.whale.mode:FIXED}")
+    private WhaleDetector.Mode defaultMode;
+
+    // FIXED 모드 또는 ADAPTIVE 표본 부족 시 고래 금액 / 변동성(매수-매도 차) 임계값 (USD)
+    @Value("${bitway.whale.fixed-usd:100000}")
+    private double defaultWhaleUsd;
+
+    @Value("${bitway.whale.volatility-usd:1000}")
+    private double defaultVolatilityUsd;
+
+    // 심볼별 고정 고래 금액 (지정한 심볼은 FIXED). 예: btcusdt:1000000,dogeusdt:20000
+    @Value("${bitway.whale.symbol-usd:}")
+    private String[] symbolWhaleUsd;
+
+    // ADAPTIVE: 고래 분위수, 최소 고래 금액, 변동성 = 고래 금액 x 배수, 최소 표본 수, 분포 반감기(분), 스케치 상대 오차
+    @Value("${bitway.whale.quantile:0.999}")
+    private double quantile;
+
+    @Value("${bitway.whale.min-usd:1000}")
+    private double minWhaleUsd;
+
+    @Value("${bitway.whale.volatility-multiple:10}")
+    private double volatilityMultiple;
+
+    @Value("${bitway.whale.min-samples:1000}")
+    private long minSamples;
+
+    @Value("${bitway.whale.half-life-minutes:60}")
+    private long halfLifeMinutes;
+
+    @Value("${bitway.whale.relative-accuracy:0.01}")
+    private double relativeAccuracy;
+
+    private WhaleDetector.Settings settings;
+    private final Map<String, Double> fixedOverrides = new HashMap<>();
+    private final Map<String, WhaleDetector> detectors = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        settings = new WhaleDetector.Settings(quantile, minWhaleUsd, volatilityMultiple, minSamples,
+                halfLifeMinutes * 60_000, relativeAccuracy);
+        for (String entry : symbolWhaleUsd) {
+            if (entry.isBlank()) continue;
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("bitway.whale.symbol-usd 형식 오류: " + entry);
+            }
+            fixedOverrides.put(SymbolRegistry.normalize(parts[0]), Double.parseDouble(parts[1]));
+        }
+        symbolRegistry.addListener(this);
+        log.info("[고래 기준] 기본 {} (고정 {} USD, 분위수 {}), 심볼별 고정 {}", defaultMode, defaultWhaleUsd, quantile, fixedOverrides);
+    }
+
+    @Override
+    public void onSymbolAdded(String symbol) {
+    }
+
+    @Override
+    public void onSymbolRemoved(String symbol) {
+        detectors.remove(symbol);
+    }
+
+    public WhaleDetector detectorOf(String symbol) {
+        return detectors.computeIfAbsent(symbol, this::newDetector);
+    }
+
+    private WhaleDetector newDetector(String symbol) {
+        Double fixed = fixedOverrides.get(symbol);
+        return fixed != null
+                ? new WhaleDetector(symbol, settings, WhaleDetector.Mode.FIXED, fixed, defaultVolatilityUsd)
+                : new WhaleDetector(symbol, settings, defaultMode, defaultWhaleUsd, defaultVolatilityUsd);
+    }
+
+    // null 인 값은 현재 값 유지
+    public WhaleThresholdResDto configure(String symbol, WhaleDetector.Mode mode, Double whaleUsd, Double volatilityUsd) {
+        WhaleDetector detector = detectorOf(requireSymbol(symbol));
+        detector.configure(mode == null ? detector.getMode() : mode,
+                whaleUsd == null ? detector.getFixedWhaleUsd() : whaleUsd,
+                volatilityUsd == null ? detector.getFixedVolatilityUsd() : volatilityUsd);
+        log.info("[고래 기준] {} 변경: {} 고정 {} USD, 변동성 {} USD", detector.getSymbol(), detector.getMode(),
+                detector.getFixedWhaleUsd(), detector.getFixedVolatilityUsd());
+        return toDto(detector);
+    }
+
+    public WhaleThresholdResDto getThreshold(String symbol) {
+        return toDto(detectorOf(requireSymbol(symbol)));
+    }
+
+    // 수집하지 않는 심볼로 감지기가 무한정 늘어나지 않도록 API 요청은 수집 중인 심볼만 받는다
+    private String requireSymbol(String symbol) {
+        String normalized = SymbolRegistry.normalize(symbol);
+        if (!symbolRegistry.contains(normalized)) {
+            throw new IllegalArgumentException("수집 중인 심볼이 아닙니다: " + symbol);
+        }
+        return normalized;
+    }
+
+    public List<WhaleThresholdResDto> getThresholds() {
+        return detectors.values().stream()
+                .map(WhaleConfigService::toDto)
+                .sorted((a, b) -> a.getSymbol().compareTo(b.getSymbol()))
+                .toList();
+    }
+
+    private static WhaleThresholdResDto toDto(WhaleDetector detector) {
+        return WhaleThresholdResDto.builder()
+                .symbol(detector.getSymbol())
+                .mode(detector.getMode().name())
+                .adaptiveActive(detector.isAdaptiveActive())
+                .whaleUsd(detector.getWhaleUsd())
+                .levelStepUsd(detector.getWhaleUsd() / 10)
+                .volatilityUsd(detector.getVolatilityUsd())
+                .fixedWhaleUsd(detector.getFixedWhaleUsd())
+                .fixedVolatilityUsd(detector.getFixedVolatilityUsd())
+                .observedTrades(detector.getObserved())
+                .build();
+    }
+}
@@ -0,0 +1,324 @@
+package com.example.bitwayws.websocket;
+
+import com.example.bitwayws.dto.AggTradeSlot;
+
+// Binance aggTrade 전용 스트리밍 파서
+// 고정 스키마(a, p, q, T, m, s)만 읽어 재사용 슬롯에 채우고 나머지 필드는 건너뛴다.
+// 중간 문자열/DTO 를 만들지 않으며 인스턴스는 스레드 하나(소켓 수신 스레드)에서만 사용해야 한다.
+public class AggTradeParser {
+
+    private static final int FIELD_A = 1;
+    private static final int FIELD_P = 1 << 1;
+    private static final int FIELD_Q = 1 << 2;
+    private static final int FIELD_T = 1 << 3;
+    private static final int FIELD_M = 1 << 4;
+    private static final int FIELD_S = 1 << 5;
+    private static final int REQUIRED = FIELD_A | FIELD_P | FIELD_Q | FIELD_T | FIELD_M | FIELD_S;
+
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private CharSequence in;
+    private int pos;
+    private int end;
+
+    // 직전 심볼 문자열 재사용 (같은 소켓은 대부분 같은 심볼)
+    private String lastSymbol;
+
+    // parseStream 에서 찾은 data 객체 범위 [dataStart, dataEnd)
+    private int dataStart = -1;
+    private int dataEnd = -1;
+
+    // 필수 필드가 모두 있으면 true. 형식 오류 시 IllegalArgumentException
+    public boolean parse(CharSequence json, AggTradeSlot slot) {
+        return parse(json, 0, json.length(), slot);
+    }
+
+    public boolean parse(CharSequence json, int from, int to, AggTradeSlot slot) {
+        in = json;
+        pos = from;
+        end = to;
+        try {
+            return parseObject(slot);
+        } finally {
+            in = null;
+        }
+    }
+
+    // combined stream 메시지 {"stream":"btcusdt@aggTrade","data":{...}} 의 data 를 파싱한다.
+    // 구독 응답({"result":null,"id":1}) 등 data 가 없으면 false
+    public boolean parseStream(CharSequence json, AggTradeSlot slot) {
+        in = json;
+        pos = 0;
+        end = json.length();
+        dataStart = -1;
+        dataEnd = -1;
+        try {
+            boolean parsed = false;
+            skipWhitespace();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') return false;
+            while (true) {
+                skipWhitespace();
+                int keyStart = readKey();
+                int keyLength = pos - keyStart - 1;
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+
+                if (keyLength == 4 && regionMatches(keyStart, "data") && peek() == '{') {
+                    dataStart = pos;
+                    parsed = parseObject(slot);
+                    dataEnd = pos;
+                } else {
+                    skipValue();
+                }
+
+                skipWhitespace();
+                char c = charAt(pos++);
+                if (c == '}') break;
+                if (c != ',') throw error("',' 또는 '}' 가 필요합니다");
+            }
+            return parsed;
+        } finally {
+            in = null;
+        }
+    }
+
+    public int getDataStart() {
+        return dataStart;
+    }
+
+    public int getDataEnd() {
+        return dataEnd;
+    }
+
+    private boolean parseObject(AggTradeSlot slot) {
+        int seen = 0;
+        skipWhitespace();
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return false;
+        }
+        while (true) {
+            skipWhitespace();
+            int keyStart = readKey();
+            int keyLength = pos - keyStart - 1;
+            char key = keyLength == 1 ? in.charAt(keyStart) : 0;
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+
+            switch (key) {
+                case 'a' -> {
+                    slot.setAggTradeId(parseLong());
+                    seen |= FIELD_A;
+                }
+                case 'p' -> {
+                    slot.setPrice(parseDecimal());
+                    seen |= FIELD_P;
+                }
+                case 'q' -> {
+                    slot.setQuantity(parseDecimal());
+                    seen |= FIELD_Q;
+                }
+                case 'T' -> {
+                    slot.setTimestamp(parseLong());
+                    seen |= FIELD_T;
+                }
+                case 'm' -> {
+                    slot.setBuyerMaker(parseBoolean());
+                    seen |= FIELD_M;
+                }
+                case 's' -> {
+                    slot.setSymbol(parseSymbol());
+                    seen |= FIELD_S;
+                }
+                default -> skipValue();
+            }
+
+            skipWhitespace();
+            char c = charAt(pos++);
+            if (c == '}') break;
+            if (c != ',') throw error("',' 또는 '}' 가 필요합니다");
+        }
+        return (seen & REQUIRED) == REQUIRED;
+    }
+
+    // "key" 를 읽고 닫는 따옴표 다음으로 이동. key 시작 위치 반환
+    private int readKey() {
+        expect('"');
+        int keyStart = pos;
+        while (charAt(pos) != '"') pos++;
+        pos++;
+        return keyStart;
+    }
+
+    private boolean regionMatches(int start, String literal) {
+        for (int i = 0; i < literal.length(); i++) {
+            if (in.charAt(start + i) != literal.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private long parseLong() {
+        boolean quoted = peek() == '"';
+        if (quoted) pos++;
+        boolean negative = peek() == '-';
+        if (negative) pos++;
+        int start = pos;
+        long value = 0;
+        while (pos < end) {
+            char c = in.charAt(pos);
+            if (c < '0' || c > '9') break;
+            value = value * 10 + (c - '0');
+            pos++;
+        }
+        if (pos == start) throw error("숫자가 필요합니다");
+        if (quoted) expect('"');
+        return negative ? -value : value;
+    }
+
+    // "123.4500" 처럼 문자열로 오는 가격/수량. 정확히 표현 가능한 범위는 mantissa / 10^scale 로 계산
+    private double parseDecimal() {
+        boolean quoted = peek() == '"';
+        if (quoted) pos++;
+        int start = pos;
+        boolean negative = peek() == '-';
+        if (negative) pos++;
+
+        long mantissa = 0;
+        int scale = 0;
+        boolean fraction = false;
+        boolean exact = true;
+        int digits = 0;
+        while (pos < end) {
+            char c = in.charAt(pos);
+            if (c >= '0' && c <= '9') {
+                if (mantissa < MAX_EXACT_MANTISSA / 10) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (fraction) scale++;
+                } else if (!fraction || c != '0') {
+                    exact = false;
+                }
+                digits++;
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else if (c == 'e' || c == 'E' || c == '+' || (c == '-' && pos > start)) {
+                exact = false;
+            } else {
+                break;
+            }
+            pos++;
+        }
+        if (digits == 0) throw error("숫자가 필요합니다");
+        int numberEnd = pos;
+        if (quoted) expect('"');
+
+        if (!exact || scale >= POW10.length) {
+            return Double.parseDouble(in.subSequence(start, numberEnd).toString());
+        }
+        double value = scale == 0 ? (double) mantissa : mantissa / POW10[scale];
+        return negative ? -value : value;
+    }
+
+    private boolean parseBoolean() {
+        if (matches("true")) {
+            pos += 4;
+            return true;
+        }
+        if (matches("false")) {
+            pos += 5;
+            return false;
+        }
+        throw error("boolean 값이 필요합니다");
+    }
+
+    private String parseSymbol() {
+        expect('"');
+        int start = pos;
+        while (charAt(pos) != '"') pos++;
+        int length = pos - start;
+        pos++;
+
+        String cached = lastSymbol;
+        if (cached != null && cached.length() == length) {
+            boolean same = true;
+            for (int i = 0; i < length; i++) {
+                if (cached.charAt(i) != in.charAt(start + i)) {
+                    same = false;
+                    break;
+                }
+            }
+            if (same) return cached;
+        }
+        lastSymbol = in.subSequence(start, start + length).toString();
+        return lastSymbol;
+    }
+
+    private void skipValue() {
+        char c = peek();
+        if (c == '"') {
+            skipString();
+        } else if (c == '{' || c == '[') {
+            int depth = 0;
+            do {
+                char ch = charAt(pos);
+                if (ch == '"') {
+                    skipString();
+                    continue;
+                }
+                if (ch == '{' || ch == '[') depth++;
+                else if (ch == '}' || ch == ']') depth--;
+                pos++;
+            } while (depth > 0);
+        } else {
+            while (pos < end) {
+                char ch = in.charAt(pos);
+                if (ch == ',' || ch == '}' || ch == ']' || Character.isWhitespace(ch)) break;
+                pos++;
+            }
+        }
+    }
+
+    private void skipString() {
+        pos++; // 여는 따옴표
+        while (true) {
+            char ch = charAt(pos++);
+            if (ch == '\\') pos++;
+            else if (ch == '"') return;
+        }
+    }
+
+    private boolean matches(String literal) {
+        return pos + literal.length() <= end && regionMatches(pos, literal);
+    }
+
+    private void skipWhitespace() {
+        while (pos < end && Character.isWhitespace(in.charAt(pos))) pos++;
+    }
+
+    private void expect(char expected) {
+        if (charAt(pos) != expected) throw error("'" + expected + "' 가 필요합니다");
+        pos++;
+    }
+
+    private char peek() {
+        return charAt(pos);
+    }
+
+    private char charAt(int index) {
+        if (index >= end) throw error("메시지가 중간에 끝났습니다");
+        return in.charAt(index);
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("aggTrade 파싱 실패 (pos=" + pos + "): " + message);
+    }
+}
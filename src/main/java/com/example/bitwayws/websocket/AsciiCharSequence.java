@@ -0,0 +1,42 @@
+package com.example.bitwayws.websocket;
+
+import java.nio.charset.StandardCharsets;
+
+// byte[] 를 복사 없이 CharSequence 로 보는 재사용 뷰 (aggTrade JSON 은 ASCII 만 사용)
+public final class AsciiCharSequence implements CharSequence {
+
+    private byte[] bytes;
+    private int offset;
+    private int length;
+
+    public AsciiCharSequence wrap(byte[] bytes) {
+        return wrap(bytes, 0, bytes.length);
+    }
+
+    public AsciiCharSequence wrap(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (bytes[offset + index] & 0xff);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new String(bytes, offset + start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -1,106 +1,430 @@
 package com.example.bitwayws.websocket;
 
-import com.example.bitwayws.dto.BinanceAggTradeResDto;
-import com.example.bitwayws.redis.service.TradeAggAnalysisService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.bitwayws.dto.AggTradeSlot;
+import com.example.bitwayws.redis.service.SymbolRegistry;
+import com.example.bitwayws.redis.service.TradeIngestPipeline;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+// Binance combined stream(/stream?streams=a@aggTrade/b@aggTrade...) 수집 클라이언트
+// 심볼을 연결당 최대 max-streams-per-connection 개씩 묶고, 런타임 추가/삭제는 SUBSCRIBE/UNSUBSCRIBE 메시지로 반영한다.
+// 연결 감시: OkHttp ping/pong + 마지막 수신 시각으로 끊김을 감지하고 jitter 를 섞은 지수 backoff 로 재연결한다.
+// Binance 의 24시간 강제 종료 전에 새 소켓을 미리 열어 넘겨받는다 (겹친 구간의 중복은 TradeSequenceTracker 가 aggTradeId 로 제거).
+// 수집 노드(bitway.ingest.enabled=true)에서만 동작한다. 클러스터에서는 수집 노드를 하나만 두어야 채널에 체결이 한 번씩만 발행된다.
 @Component
+@ConditionalOnProperty(name = "bitway.ingest.enabled", havingValue = "true", matchIfMissing = true)
 @Slf4j
 @RequiredArgsConstructor
-public class BinanceAggTradeWebSocketClient {
+public class BinanceAggTradeWebSocketClient implements SymbolRegistry.Listener {
 
-    private final TradeAggAnalysisService tradeAnalysisService;
-    private final ObjectMapper objectMapper;
+    private static final String STREAM_URL = "wss://stream.binance.com:9443/stream?streams=";
+    private static final String STREAM_SUFFIX = "@aggTrade";
 
-    private final Map<String, WebSocket> webSocketMap = new ConcurrentHashMap<>();
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    private final TradeIngestPipeline tradePipeline;
+    private final SymbolRegistry symbolRegistry;
 
-    private static final String[] SYMBOLS = {"btcusdt"}; // 여기에 원하는 심볼 추가
+    // 연결당 스트림 수 (Binance 한도 1024)
+    @Value("${bitway.binance.max-streams-per-connection:200}")
+    private int maxStreamsPerConnection;
 
-    private final OkHttpClient client = new OkHttpClient();
+    // SUBSCRIBE/UNSUBSCRIBE 묶음 전송 주기 ms. 주기당 연결별 1개만 보내므로 초당 1000/주기 개 (Binance 연결당 초당 5개 한도, ping/pong 포함)
+    @Value("${bitway.binance.control-interval-ms:400}")
+    private long controlIntervalMs;
+
+    // 클라이언트 ping 주기. pong 이 없으면 OkHttp 가 onFailure 로 알린다
+    @Value("${bitway.binance.ping-interval-ms:15000}")
+    private long pingIntervalMs;
+
+    // 이 시간 동안 아무 메시지도 없으면 끊긴 것으로 보고 재연결
+    @Value("${bitway.binance.stale-ms:60000}")
+    private long staleMs;
+
+    // 재연결 backoff 기본값/최대값 ms
+    @Value("${bitway.binance.backoff-base-ms:100}")
+    private long backoffBaseMs;
+
+    @Value("${bitway.binance.backoff-max-ms:30000}")
+    private long backoffMaxMs;
+
+    // 24시간 강제 종료 전 교체 시점, 교체 후 이전 소켓을 닫기까지 대기 ms
+    @Value("${bitway.binance.rotate-after-ms:82800000}")
+    private long rotateAfterMs;
+
+    @Value("${bitway.binance.drain-ms:2000}")
+    private long drainMs;
+
+    private final List<StreamConnection> connections = new CopyOnWriteArrayList<>();
+    private final Map<String, StreamConnection> connectionBySymbol = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "binance-ws-control");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicInteger connectionIds = new AtomicInteger();
+    private final AtomicLong requestIds = new AtomicLong();
+
+    private OkHttpClient client;
+
+    public enum State {
+        CONNECTING,
+        OPEN,
+        DRAINING,
+        CLOSED
+    }
 
     @PostConstruct
     public void startAll() {
-        for (String symbol : SYMBOLS) {
-            connect(symbol);
+        client = new OkHttpClient.Builder()
+                .pingInterval(pingIntervalMs, TimeUnit.MILLISECONDS)
+                .build();
+        symbolRegistry.addListener(this);
+        for (String symbol : symbolRegistry.getSymbols()) {
+            assign(symbol);
+        }
+        for (StreamConnection connection : connections) {
+            connection.connect();
         }
-        // 연결 상태 감시 및 재시도
-        scheduler.scheduleAtFixedRate(this::checkAndReconnect, 10, 20, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(this::flushControlMessages, controlIntervalMs, controlIntervalMs, TimeUnit.MILLISECONDS);
+        // 연결 상태 감시 (끊김/무응답/교체 시점)
+        scheduler.scheduleWithFixedDelay(this::supervise, 1, 1, TimeUnit.SECONDS);
     }
 
-    private void connect(String symbol) {
-        String url = "wss://stream.binance.com:9443/ws/" + symbol.toLowerCase() + "@aggTrade";
-
-        Request request = new Request.Builder().url(url).build();
-        WebSocket ws = client.newWebSocket(request, new WebSocketListener() {
-            @Override
-            public void onMessage(WebSocket webSocket, String text) {
-                try {
-                    BinanceAggTradeResDto trade = objectMapper.readValue(text, BinanceAggTradeResDto.class);
-                    tradeAnalysisService.processTrade(trade);
-                } catch (Exception e) {
-                    log.error("❌ WebSocket 메시지 파싱 오류 ({}): {}", symbol, e.getMessage(), e);
-                }
-            }
+    @Override
+    public void onSymbolAdded(String symbol) {
+        StreamConnection connection = assign(symbol);
+        if (connection != null) connection.connect();
+    }
 
-            @Override
-            public void onFailure(WebSocket webSocket, Throwable t, Response response) {
-                long lastFailureTime = System.currentTimeMillis();
-                log.error("❌ WebSocket 연결 실패 ({}): {} (시간: {})", symbol, t.getMessage(), lastFailureTime);
-                webSocketMap.remove(symbol);
-            }
+    @Override
+    public void onSymbolRemoved(String symbol) {
+        synchronized (this) {
+            StreamConnection connection = connectionBySymbol.remove(symbol);
+            if (connection == null) return;
+            connection.removeSymbol(symbol);
+        }
+    }
 
-            @Override
-            public void onClosing(WebSocket webSocket, int code, String reason) {
-                log.warn("⚠️ WebSocket 연결 종료 중... ({}) 코드: {}, 이유: {}", symbol, code, reason);
-                webSocket.close(1000, null);
-                webSocketMap.remove(symbol);
+    // 여유 있는 연결에 심볼을 배정하고, 없으면 새 연결을 만든다. 이미 배정된 심볼이면 null
+    private synchronized StreamConnection assign(String symbol) {
+        if (connectionBySymbol.containsKey(symbol)) return null;
+        StreamConnection target = null;
+        for (StreamConnection connection : connections) {
+            if (!connection.closed && connection.streamCount() < maxStreamsPerConnection) {
+                target = connection;
+                break;
             }
+        }
+        if (target == null) {
+            target = new StreamConnection(connectionIds.incrementAndGet());
+            connections.add(target);
+        }
+        target.addSymbol(symbol);
+        connectionBySymbol.put(symbol, target);
+        return target;
+    }
 
-            @Override
-            public void onClosed(WebSocket webSocket, int code, String reason) {
-                log.warn("⚠️ WebSocket 연결 종료 완료. ({}) 코드: {}, 이유: {}", symbol, code, reason);
-                webSocketMap.remove(symbol);
+    private void flushControlMessages() {
+        for (StreamConnection connection : connections) {
+            try {
+                connection.flushPending();
+            } catch (Exception e) {
+                log.error("❌ 구독 변경 전송 실패 (연결 {}): {}", connection.id, e.getMessage(), e);
             }
-        });
-
-        webSocketMap.put(symbol, ws);
-        log.info("✅ WebSocket 연결 완료: {}", symbol);
+        }
     }
 
-    private void checkAndReconnect() {
-        for (String symbol : SYMBOLS) {
-            WebSocket ws = webSocketMap.get(symbol);
-            if (ws == null || !isWebSocketOpen(ws)) {
-                log.warn("❌ WebSocket 연결 끊김 감지: {}, 재연결 시도", symbol);
-                connect(symbol);
+    private void supervise() {
+        long now = System.currentTimeMillis();
+        for (StreamConnection connection : connections) {
+            try {
+                connection.supervise(now);
+            } catch (Exception e) {
+                log.error("❌ 연결 감시 오류 (연결 {}): {}", connection.id, e.getMessage(), e);
             }
         }
     }
 
+    // 연결별 현재 소켓 상태
+    public Map<Integer, State> getConnectionStates() {
+        Map<Integer, State> states = new ConcurrentHashMap<>();
+        for (StreamConnection connection : connections) {
+            Socket current = connection.current;
+            states.put(connection.id, current == null ? State.CLOSED : current.state);
+        }
+        return states;
+    }
+
     @PreDestroy
     public void shutdownAll() {
         scheduler.shutdownNow();
-        webSocketMap.values().forEach(ws -> ws.close(1000, "Application shutdown"));
-        webSocketMap.clear();
+        for (StreamConnection connection : connections) {
+            connection.close("Application shutdown");
+        }
+        connections.clear();
+        connectionBySymbol.clear();
+    }
+
+    // 하나의 combined stream 연결이 담당하는 심볼 집합과 그 소켓(현재 소켓 + 교체 중인 다음 소켓)
+    private final class StreamConnection {
+
+        private final int id;
+        // 이 연결이 담당해야 하는 심볼
+        private final Set<String> symbols = new LinkedHashSet<>();
+
+        // 체결을 전달하는 소켓. 다른 소켓의 메시지는 버린다
+        private volatile Socket current;
+        // 교체용으로 미리 연 소켓. 첫 메시지를 받으면 current 가 된다
+        private volatile Socket next;
+
+        private int failures;
+        private boolean reconnectScheduled;
+        private volatile boolean closed;
+
+        StreamConnection(int id) {
+            this.id = id;
+        }
+
+        synchronized int streamCount() {
+            return symbols.size();
+        }
+
+        synchronized void addSymbol(String symbol) {
+            symbols.add(symbol);
+        }
+
+        synchronized void removeSymbol(String symbol) {
+            symbols.remove(symbol);
+            if (symbols.isEmpty()) {
+                // 담당 심볼이 없으면 연결 자체를 정리
+                close("No streams");
+                connections.remove(this);
+            }
+        }
+
+        // 이미 연결 중이거나 열려 있으면 새 소켓을 만들지 않는다
+        synchronized void connect() {
+            if (closed || symbols.isEmpty()) return;
+            if (current != null && (current.state == State.CONNECTING || current.state == State.OPEN)) return;
+            current = openSocket();
+        }
+
+        private Socket openSocket() {
+            Socket socket = new Socket(this, new LinkedHashSet<>(symbols));
+            StringBuilder url = new StringBuilder(STREAM_URL);
+            for (String symbol : socket.subscribed) {
+                if (url.length() > STREAM_URL.length()) url.append('/');
+                url.append(symbol).append(STREAM_SUFFIX);
+            }
+            socket.ws = client.newWebSocket(new Request.Builder().url(url.toString()).build(), socket);
+            log.info("✅ WebSocket 연결 시작: 연결 {} ({}개 스트림)", id, socket.subscribed.size());
+            return socket;
+        }
+
+        synchronized void supervise(long now) {
+            if (closed) return;
+            Socket socket = current;
+            if (socket == null) {
+                scheduleReconnect();
+                return;
+            }
+            if (socket.state != State.OPEN) return;
+
+            if (now - socket.lastMessageAt > staleMs) {
+                log.warn("❌ WebSocket 무응답 감지: 연결 {} ({}ms 동안 수신 없음), 재연결", id, now - socket.lastMessageAt);
+                socket.ws.cancel();
+                onSocketDown(socket);
+                return;
+            }
+            if (next == null && now - socket.openedAt > rotateAfterMs) {
+                log.info("[연결 교체] 연결 {} 열린 지 {}ms, 새 소켓 준비", id, now - socket.openedAt);
+                next = openSocket();
+            }
+        }
+
+        // 교체용 소켓의 첫 메시지: 전달 소켓을 바꾸고 이전 소켓은 잠시 뒤 닫는다
+        synchronized void promote(Socket socket) {
+            if (socket != next) return;
+            Socket previous = current;
+            current = socket;
+            next = null;
+            log.info("[연결 교체] 연결 {} 새 소켓으로 전환", id);
+            if (previous != null && previous.state != State.CLOSED) {
+                previous.state = State.DRAINING;
+                scheduler.schedule(() -> previous.ws.close(1000, "Rotated"), drainMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        synchronized void onSocketUp(Socket socket) {
+            failures = 0;
+        }
+
+        // 현재 소켓이 끊기면 backoff 후 재연결. 교체용 소켓이 끊기면 다음 감시 주기에 다시 준비
+        synchronized void onSocketDown(Socket socket) {
+            socket.state = State.CLOSED;
+            if (socket == next) {
+                next = null;
+                return;
+            }
+            if (socket != current) return;
+            current = null;
+            if (!closed) scheduleReconnect();
+        }
+
+        private void scheduleReconnect() {
+            if (reconnectScheduled) return;
+            reconnectScheduled = true;
+            long delay = backoffDelay(failures++);
+            log.warn("❌ WebSocket 재연결 예약: 연결 {} {}ms 후 (연속 실패 {}회)", id, delay, failures);
+            scheduler.schedule(() -> {
+                synchronized (this) {
+                    reconnectScheduled = false;
+                }
+                connect();
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+
+        // equal jitter: [d/2, d) (d = min(max, base * 2^attempt))
+        private long backoffDelay(int attempt) {
+            long delay = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempt, 20));
+            return delay / 2 + ThreadLocalRandom.current().nextLong(Math.max(1, delay / 2));
+        }
+
+        // symbols 와 전달 소켓의 구독 차이를 SUBSCRIBE/UNSUBSCRIBE 한 번씩으로 전송
+        synchronized void flushPending() {
+            if (closed) return;
+            Socket socket = current;
+            if (socket != null) socket.flushPending(symbols);
+            Socket standby = next;
+            if (standby != null) standby.flushPending(symbols);
+        }
+
+        synchronized void close(String reason) {
+            closed = true;
+            for (Socket socket : new Socket[]{current, next}) {
+                if (socket != null && socket.ws != null) {
+                    socket.state = State.DRAINING;
+                    socket.ws.close(1000, reason);
+                }
+            }
+        }
     }
 
-    private boolean isWebSocketOpen(WebSocket ws) {
-        try {
-            ws.send(""); // 빈 메시지를 보내서 확인
-            return true;
-        } catch (Exception e) {
-            return false;
+    // 소켓 하나. OkHttp 는 소켓당 한 스레드에서만 콜백을 호출하므로 파서와 슬롯을 재사용한다 (샤드 큐에는 값이 복사됨)
+    private final class Socket extends WebSocketListener {
+
+        private final StreamConnection connection;
+        // 서버에 구독된 것으로 보는 심볼 (URL 에 포함했거나 SUBSCRIBE 를 보낸 심볼)
+        private final Set<String> subscribed;
+        private final AggTradeParser parser = new AggTradeParser();
+        private final AggTradeSlot trade = new AggTradeSlot();
+
+        private volatile WebSocket ws;
+        private volatile State state = State.CONNECTING;
+        private volatile long openedAt;
+        private volatile long lastMessageAt;
+        private boolean promoted;
+
+        Socket(StreamConnection connection, Set<String> subscribed) {
+            this.connection = connection;
+            this.subscribed = subscribed;
+        }
+
+        // 연결 락 안에서 호출. 주기당 제어 메시지는 하나만 보낸다 (SUBSCRIBE 우선, UNSUBSCRIBE 는 다음 주기)
+        void flushPending(Set<String> symbols) {
+            if (state != State.OPEN) return;
+            List<String> toSubscribe = new ArrayList<>();
+            for (String symbol : symbols) {
+                if (!subscribed.contains(symbol)) toSubscribe.add(symbol);
+            }
+            List<String> toUnsubscribe = new ArrayList<>();
+            for (String symbol : subscribed) {
+                if (!symbols.contains(symbol)) toUnsubscribe.add(symbol);
+            }
+            if (!toSubscribe.isEmpty()) {
+                if (send("SUBSCRIBE", toSubscribe)) subscribed.addAll(toSubscribe);
+            } else if (!toUnsubscribe.isEmpty()) {
+                if (send("UNSUBSCRIBE", toUnsubscribe)) toUnsubscribe.forEach(subscribed::remove);
+            }
+        }
+
+        private boolean send(String method, List<String> symbols) {
+            StringBuilder message = new StringBuilder(64 + symbols.size() * 24)
+                    .append("{\"method\":\"").append(method).append("\",\"params\":[");
+            for (int i = 0; i < symbols.size(); i++) {
+                if (i > 0) message.append(',');
+                message.append('"').append(symbols.get(i)).append(STREAM_SUFFIX).append('"');
+            }
+            message.append("],\"id\":").append(requestIds.incrementAndGet()).append('}');
+            boolean sent = ws.send(message.toString());
+            log.info("[구독 변경] 연결 {} {} {}개: {}", connection.id, method, symbols.size(), symbols);
+            return sent;
+        }
+
+        @Override
+        public void onOpen(WebSocket webSocket, Response response) {
+            openedAt = System.currentTimeMillis();
+            lastMessageAt = openedAt;
+            state = State.OPEN;
+            connection.onSocketUp(this);
+            log.info("✅ WebSocket 연결 완료: 연결 {} ({}개 스트림)", connection.id, subscribed.size());
+        }
+
+        @Override
+        public void onMessage(WebSocket webSocket, String text) {
+            lastMessageAt = System.currentTimeMillis();
+            if (!promoted && connection.next == this) {
+                connection.promote(this);
+                promoted = true;
+            }
+            if (connection.current != this) return; // 교체 대기 중이거나 닫히는 소켓
+
+            try {
+                if (parser.parseStream(text, trade)) {
+                    tradePipeline.submit(trade, text.substring(parser.getDataStart(), parser.getDataEnd()));
+                } else if (text.contains("\"error\"")) {
+                    log.warn("⚠️ 구독 요청 오류 (연결 {}): {}", connection.id, text);
+                } else {
+                    log.debug("aggTrade 가 아닌 메시지 (연결 {}): {}", connection.id, text);
+                }
+            } catch (Exception e) {
+                log.error("❌ WebSocket 메시지 파싱 오류 (연결 {}): {}", connection.id, e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void onFailure(WebSocket webSocket, Throwable t, Response response) {
+            log.error("❌ WebSocket 연결 실패 (연결 {}): {} (시간: {})", connection.id, t.getMessage(), System.currentTimeMillis());
+            connection.onSocketDown(this);
+        }
+
+        @Override
+        public void onClosing(WebSocket webSocket, int code, String reason) {
+            log.warn("⚠️ WebSocket 연결 종료 중... (연결 {}) 코드: {}, 이유: {}", connection.id, code, reason);
+            webSocket.close(1000, null);
+            if (state != State.DRAINING) connection.onSocketDown(this);
+        }
+
+        @Override
+        public void onClosed(WebSocket webSocket, int code, String reason) {
+            log.warn("⚠️ WebSocket 연결 종료 완료. (연결 {}) 코드: {}, 이유: {}", connection.id, code, reason);
+            connection.onSocketDown(this);
         }
     }
-}
\ No newline at end of file
+}
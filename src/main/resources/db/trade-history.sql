@@ -0,0 +1,25 @@
+-- 체결/분석 이력 (TradeHistoryRepository)
+-- 거래일(08:00 Asia/Seoul 시작) 단위 RANGE 파티션 아래에 심볼 LIST 파티션을 두며, 파티션은 쓰기 전에 필요할 때 만든다.
+
+CREATE TABLE IF NOT EXISTS trade_history (
+    symbol       varchar(30)      NOT NULL,
+    agg_trade_id bigint           NOT NULL,
+    price        double precision NOT NULL,
+    quantity     double precision NOT NULL,
+    trade_time   timestamptz      NOT NULL,
+    buyer_maker  boolean          NOT NULL
+) PARTITION BY RANGE (trade_time);
+
+CREATE INDEX IF NOT EXISTS trade_history_symbol_time_idx ON trade_history (symbol, trade_time);
+
+CREATE TABLE IF NOT EXISTS analysis_history (
+    symbol              varchar(30)      NOT NULL,
+    created_at          timestamptz      NOT NULL,
+    buy_volume          double precision,
+    sell_volume         double precision,
+    diff_volume         double precision,
+    volatility_detected boolean          NOT NULL,
+    payload             jsonb            NOT NULL
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX IF NOT EXISTS analysis_history_symbol_time_idx ON analysis_history (symbol, created_at);
@@ -0,0 +1,126 @@
+package com.example.bitwayws.analysis;
+
+import com.example.bitwayws.dto.TradeAnalysisDeltaResDto;
+import com.example.bitwayws.dto.TradeAnalysisLogResDto;
+import com.example.bitwayws.dto.WhaleTradeResDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalysisDeltaTrackerTest {
+
+    private static final WhaleTradeResDto W1 = whale(1);
+    private static final WhaleTradeResDto W2 = whale(2);
+    private static final WhaleTradeResDto W3 = whale(3);
+    private static final WhaleTradeResDto W4 = whale(4);
+
+    @Test
+    void unchangedStateReturnsNull() {
+        AnalysisDeltaTracker tracker = new AnalysisDeltaTracker(10, 0);
+        assertThat(tracker.next(state(100, 50, Map.of(1, 3L), List.of(W1)), 0).keyframe()).isTrue();
+
+        assertThat(tracker.next(state(100, 50, Map.of(1, 3L), List.of(W1)), 1)).isNull();
+        assertThat(tracker.getUnchangedCount()).isEqualTo(1L);
+        assertThat(tracker.getSeq()).isEqualTo(1L);
+    }
+
+    @Test
+    void deltaCarriesOnlyChangedFields() {
+        AnalysisDeltaTracker tracker = new AnalysisDeltaTracker(10, 0);
+        tracker.next(state(100, 50, Map.of(1, 3L, 2, 1L), List.of(W1, W2)), 0);
+
+        AnalysisDeltaTracker.Frame frame = tracker.next(state(130, 50, Map.of(1, 4L, 2, 1L), List.of(W2, W3)), 1);
+
+        assertThat(frame.keyframe()).isFalse();
+        TradeAnalysisDeltaResDto delta = (TradeAnalysisDeltaResDto) frame.payload();
+        assertThat(delta.getSeq()).isEqualTo(2L);
+        assertThat(delta.getBaseSeq()).isEqualTo(1L);
+        assertThat(delta.getBuyVolumeDelta()).isEqualTo(30.0);
+        assertThat(delta.getSellVolumeDelta()).isNull();
+        assertThat(delta.getTradeLevels()).isEqualTo(Map.of(1, 4L));
+        assertThat(delta.getWhaleTrades()).containsExactly(W3);
+    }
+
+    @Test
+    void keyframeEveryNFrames() {
+        AnalysisDeltaTracker tracker = new AnalysisDeltaTracker(3, 0);
+        List<Boolean> keyframes = new ArrayList<>();
+        for (int i = 1; i <= 7; i++) {
+            keyframes.add(tracker.next(state(100 * i, 0, Map.of(), List.of()), i).keyframe());
+        }
+
+        assertThat(keyframes).containsExactly(true, false, false, true, false, false, true);
+        assertThat(tracker.getKeyframeCount()).isEqualTo(3L);
+        assertThat(tracker.getDeltaCount()).isEqualTo(4L);
+    }
+
+    @Test
+    void keyframeAfterInterval() {
+        AnalysisDeltaTracker tracker = new AnalysisDeltaTracker(100, 30_000);
+
+        assertThat(tracker.next(state(100, 0, Map.of(), List.of()), 0).keyframe()).isTrue();
+        assertThat(tracker.next(state(200, 0, Map.of(), List.of()), 10_000).keyframe()).isFalse();
+        assertThat(tracker.next(state(300, 0, Map.of(), List.of()), 29_999).keyframe()).isFalse();
+        assertThat(tracker.next(state(400, 0, Map.of(), List.of()), 30_000).keyframe()).isTrue();
+        assertThat(tracker.next(state(500, 0, Map.of(), List.of()), 40_000).keyframe()).isFalse();
+    }
+
+    @Test
+    void fallingVolumeForcesKeyframe() {
+        AnalysisDeltaTracker tracker = new AnalysisDeltaTracker(100, 0);
+        tracker.next(state(1_000, 800, Map.of(1, 5L), List.of()), 0);
+
+        // 거래일 전환으로 누적값 초기화
+        assertThat(tracker.next(state(10, 800, Map.of(1, 5L), List.of()), 1).keyframe()).isTrue();
+        assertThat(tracker.next(state(20, 5, Map.of(1, 5L), List.of()), 2).keyframe()).isTrue();
+    }
+
+    @Test
+    void fallingOrMissingLevelForcesKeyframe() {
+        AnalysisDeltaTracker tracker = new AnalysisDeltaTracker(100, 0);
+        tracker.next(state(100, 0, Map.of(1, 5L, 2, 2L), List.of()), 0);
+
+        assertThat(tracker.next(state(110, 0, Map.of(1, 4L, 2, 2L), List.of()), 1).keyframe()).isTrue();
+        assertThat(tracker.next(state(120, 0, Map.of(1, 4L), List.of()), 2).keyframe()).isTrue();
+        assertThat(tracker.next(state(130, 0, Map.of(1, 6L), List.of()), 3).keyframe()).isFalse();
+    }
+
+    @Test
+    void whaleListPushedPastPreviousLastForcesKeyframe() {
+        AnalysisDeltaTracker tracker = new AnalysisDeltaTracker(100, 0);
+        tracker.next(state(100, 0, Map.of(), List.of(W1, W2)), 0);
+
+        // 직전 목록의 마지막(W2)이 밀려나 새 체결의 시작을 알 수 없음
+        AnalysisDeltaTracker.Frame frame = tracker.next(state(200, 0, Map.of(), List.of(W3, W4)), 1);
+
+        assertThat(frame.keyframe()).isTrue();
+        assertThat(frame.payload()).isInstanceOf(TradeAnalysisLogResDto.class);
+    }
+
+    private static TradeAnalysisLogResDto state(double buy, double sell, Map<Integer, Long> levels,
+                                                List<WhaleTradeResDto> whales) {
+        return TradeAnalysisLogResDto.builder()
+                .symbol("BTCUSDT")
+                .latestTradeTime("t" + (long) (buy + sell))
+                .tradeLevels(levels)
+                .whaleTrades(whales)
+                .buyVolume(buy)
+                .sellVolume(sell)
+                .diffVolume(buy - sell)
+                .build();
+    }
+
+    private static WhaleTradeResDto whale(int n) {
+        return WhaleTradeResDto.builder()
+                .side("매수")
+                .quantity(n)
+                .price(60_000)
+                .total(60_000.0 * n)
+                .timestamp("2024-01-01T00:00:0" + n)
+                .build();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.bitwayws.analysis;
+
+import com.example.bitwayws.dto.CandleResDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CandleAggregatorTest {
+
+    // 정시 (06:00 KST, 거래일 경계 08:00 과 떨어진 시각)
+    private static final long T0 = 1_699_995_600_000L;
+
+    private final CandleAggregator candles = new CandleAggregator("BTCUSDT", 100);
+    private final List<CandleResDto> closed = new ArrayList<>();
+
+    @Test
+    void lateTradeRollsIntoSmallestOpenParent() {
+        candles.add(100, 1, T0 + 500, false, closed);
+        candles.add(101, 1, T0 + 1_500, false, closed); // 1초 캔들 T0 닫힘 -> 1분 캔들 T0 에 합쳐짐
+
+        // 이미 닫힌 1초 구간의 늦은 체결
+        candles.add(99, 2, T0 + 200, true, closed);
+
+        assertThat(closed).hasSize(1);
+        CandleResDto second = candles.recent(0, 10).get(0);
+        assertThat(second.getOpenTime()).isEqualTo(T0);
+        assertThat(second.getTradeCount()).isEqualTo(1L); // 닫힌 1초 캔들은 그대로
+
+        CandleResDto minute = candles.recent(1, 10).get(0);
+        assertThat(minute.isClosed()).isFalse();
+        assertThat(minute.getTradeCount()).isEqualTo(3L);
+        assertThat(minute.getOpen()).isEqualTo(99.0); // 가장 이른 체결
+        assertThat(minute.getClose()).isEqualTo(101.0);
+        assertThat(minute.getLow()).isEqualTo(99.0);
+        assertThat(minute.getSellVolume()).isEqualTo(2.0);
+        assertThat(candles.getLateTrades()).isEqualTo(0L);
+    }
+
+    @Test
+    void lateTradeWithoutOpenParentIsCounted() {
+        candles.add(100, 1, T0 + 500, false, closed);
+        candles.add(101, 1, T0 + 1_500, false, closed);
+
+        // 열린 1분 캔들보다 이전이고 5분 캔들은 아직 없음
+        candles.add(98, 1, T0 - 60_000, false, closed);
+
+        assertThat(candles.getLateTrades()).isEqualTo(1L);
+        assertThat(candles.recent(1, 10).get(0).getTradeCount()).isEqualTo(2L);
+    }
+
+    @Test
+    void closesSmallestIntervalFirstOnTrade() {
+        candles.add(100, 1, T0 + 500, false, closed);
+        candles.add(101, 1, T0 + 61_000, false, closed); // 1초 T0 닫힘, 1분 T0 은 열린 채
+        assertThat(intervals(closed)).containsExactly("1s");
+
+        closed.clear();
+        candles.add(102, 1, T0 + 62_000, false, closed); // 1초 T0+61s 닫힘 -> 다른 1분 구간이므로 1분 T0 도 닫힘
+
+        assertThat(intervals(closed)).containsExactly("1s", "1m");
+        assertThat(closed.get(0).getOpenTime()).isEqualTo(T0 + 61_000);
+        assertThat(closed.get(1).getOpenTime()).isEqualTo(T0);
+        assertThat(closed.get(1).getTradeCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void closeExpiredCascadesUpToOpenDay() {
+        candles.add(100, 1, T0 + 500, false, closed);
+
+        candles.closeExpired(T0 + 3_600_000, closed);
+
+        assertThat(intervals(closed)).containsExactly("1s", "1m", "5m", "1h");
+        for (CandleResDto candle : closed) {
+            assertThat(candle.getOpenTime()).isEqualTo(T0);
+            assertThat(candle.getTradeCount()).isEqualTo(1L);
+        }
+        CandleResDto day = candles.recent(4, 10).get(0);
+        assertThat(day.isClosed()).isFalse();
+        assertThat(day.getTradeCount()).isEqualTo(1L);
+    }
+
+    private static List<String> intervals(List<CandleResDto> candles) {
+        return candles.stream().map(CandleResDto::getInterval).toList();
+    }
+}
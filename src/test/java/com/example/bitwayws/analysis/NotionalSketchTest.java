@@ -0,0 +1,63 @@
+package com.example.bitwayws.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+class NotionalSketchTest {
+
+    private static final double ACCURACY = 0.01;
+
+    @Test
+    void quantilesStayWithinRelativeAccuracyOnLognormalNotionals() {
+        // 체결 금액처럼 꼬리가 긴 분포 (중앙값 약 2,000 USD)
+        Random random = new Random(42);
+        double[] values = new double[200_000];
+        NotionalSketch sketch = new NotionalSketch(ACCURACY, 0.01, 1e10);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(7.6 + 2.0 * random.nextGaussian());
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double q : new double[]{0.5, 0.9, 0.999}) {
+            double exact = values[(int) Math.ceil(q * values.length) - 1];
+            // 버킷 오차(1%) + 분위수 경계의 순위 차이 한 칸
+            assertThat(sketch.quantile(q)).isCloseTo(exact, withinPercentage(2));
+        }
+    }
+
+    @Test
+    void emptySketchHasNoQuantile() {
+        NotionalSketch sketch = new NotionalSketch(ACCURACY, 0.01, 1e10);
+
+        assertThat(sketch.quantile(0.999)).isNaN();
+    }
+
+    @Test
+    void clampsOutOfRangeValuesIntoEdgeBuckets() {
+        NotionalSketch sketch = new NotionalSketch(ACCURACY, 1, 1000);
+        sketch.add(0.001);
+        sketch.add(1e9);
+        sketch.add(-5); // 0 이하는 무시
+
+        assertThat(sketch.getWeight()).isEqualTo(2.0);
+        assertThat(sketch.quantile(0)).isCloseTo(1, withinPercentage(1));
+        assertThat(sketch.quantile(1)).isCloseTo(1000, withinPercentage(1));
+    }
+
+    @Test
+    void decayShiftsQuantilesTowardRecentTrades() {
+        NotionalSketch sketch = new NotionalSketch(ACCURACY, 0.01, 1e10);
+        for (int i = 0; i < 1000; i++) sketch.add(100);
+        for (int i = 0; i < 10; i++) sketch.decay(0.5);
+        for (int i = 0; i < 1000; i++) sketch.add(10_000);
+
+        assertThat(sketch.getWeight()).isCloseTo(1000 + 1000 / 1024.0, withinPercentage(0.01));
+        assertThat(sketch.quantile(0.5)).isCloseTo(10_000, withinPercentage(1));
+    }
+}
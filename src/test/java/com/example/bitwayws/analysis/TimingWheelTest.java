@@ -0,0 +1,85 @@
+package com.example.bitwayws.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final long TICK_MS = 10;
+    private static final long START = 1_000_000;
+
+    // 8슬롯 = 한 바퀴 80ms
+    private final TimingWheel<String> wheel = new TimingWheel<>(TICK_MS, 8, START);
+    private final List<String> fired = new ArrayList<>();
+
+    @Test
+    void firesAtFirstTickAfterDueTime() {
+        wheel.schedule("a", START + 25);
+
+        wheel.advance(START + 29, fired::add);
+        assertThat(fired).isEmpty();
+        assertThat(wheel.size()).isEqualTo(1);
+
+        wheel.advance(START + 30, fired::add);
+        assertThat(fired).containsExactly("a");
+        assertThat(wheel.size()).isEqualTo(0);
+    }
+
+    @Test
+    void firesAcrossRoundsInSameSlot() {
+        // 같은 슬롯, 1바퀴/3바퀴 뒤
+        wheel.schedule("far", START + 3 * 80 + 30);
+        wheel.schedule("near", START + 30);
+        wheel.schedule("next", START + 80 + 30);
+
+        wheel.advance(START + 30, fired::add);
+        assertThat(fired).containsExactly("near");
+
+        wheel.advance(START + 80 + 29, fired::add);
+        assertThat(fired).containsExactly("near");
+
+        wheel.advance(START + 80 + 30, fired::add);
+        assertThat(fired).containsExactly("near", "next");
+
+        wheel.advance(START + 3 * 80 + 30, fired::add);
+        assertThat(fired).containsExactly("near", "next", "far");
+        assertThat(wheel.size()).isEqualTo(0);
+    }
+
+    @Test
+    void pastDueTaskFiresOnNextAdvance() {
+        wheel.advance(START + 100, fired::add);
+
+        wheel.schedule("late", START + 40);
+        wheel.advance(START + 100, fired::add);
+
+        assertThat(fired).containsExactly("late");
+        assertThat(wheel.size()).isEqualTo(0);
+    }
+
+    @Test
+    void rescheduledTaskLeavesStaleEntryForCallerToSkip() {
+        // 휠은 취소를 지원하지 않으므로 호출 측이 현재 예약 시각(dueAt)으로 무효화한다
+        long[] dueAt = {START + 50};
+        wheel.schedule("sym", dueAt[0]);
+        dueAt[0] = START + 20; // 앞당김
+        wheel.schedule("sym", dueAt[0]);
+
+        List<Long> runs = new ArrayList<>();
+        for (long now = START; now <= START + 100; now += TICK_MS) {
+            long tickNow = now;
+            wheel.advance(now, task -> {
+                if (dueAt[0] > tickNow) return; // 이미 실행됐거나 재예약됨
+                dueAt[0] = Long.MAX_VALUE;
+                runs.add(tickNow);
+            });
+        }
+
+        assertThat(runs).containsExactly(START + 20);
+        assertThat(wheel.size()).isEqualTo(0);
+    }
+}
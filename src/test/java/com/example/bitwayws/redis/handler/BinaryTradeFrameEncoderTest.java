@@ -0,0 +1,85 @@
+package com.example.bitwayws.redis.handler;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinaryTradeFrameEncoderTest {
+
+    private final BinaryTradeFrameEncoder encoder = new BinaryTradeFrameEncoder();
+
+    @Test
+    void encodesBatchWithFallingPriceAsZigZagDeltas() {
+        List<byte[]> frames = List.of(
+                trade(5000, "67250.12", "0.5", 1_700_000_000_000L, false),
+                trade(5001, "67249.9", "0.00123", 1_700_000_000_004L, true),  // 가격 하락 (음수 차이)
+                trade(5003, "67251", "12", 1_700_000_000_004L, false));
+
+        ByteBuffer in = ByteBuffer.wrap(encoder.encode("BTCUSDT", frames));
+
+        assertThat(in.get()).isEqualTo((byte) BinaryTradeFrameEncoder.VERSION);
+        assertThat(in.get()).isEqualTo((byte) BinaryTradeFrameEncoder.TYPE_TRADES);
+        byte[] symbol = new byte[in.get()];
+        in.get(symbol);
+        assertThat(new String(symbol, StandardCharsets.US_ASCII)).isEqualTo("BTCUSDT");
+        int priceScale = in.get();
+        int quantityScale = in.get();
+        assertThat(priceScale).isEqualTo(2);
+        assertThat(quantityScale).isEqualTo(5);
+        assertThat(readVarLong(in)).isEqualTo(3L);
+
+        List<long[]> decoded = new ArrayList<>();
+        long id = 0, time = 0, price = 0;
+        for (int i = 0; i < 3; i++) {
+            id = i == 0 ? readVarLong(in) : id + unZigZag(readVarLong(in));
+            time = i == 0 ? readVarLong(in) : time + unZigZag(readVarLong(in));
+            price = i == 0 ? readVarLong(in) : price + unZigZag(readVarLong(in));
+            long quantityAndFlag = readVarLong(in);
+            decoded.add(new long[]{id, time, price, quantityAndFlag >>> 1, quantityAndFlag & 1});
+        }
+        assertThat(in.hasRemaining()).isFalse();
+
+        assertThat(decoded.get(0)).containsExactly(5000L, 1_700_000_000_000L, 6_725_012L, 50_000L, 0L);
+        assertThat(decoded.get(1)).containsExactly(5001L, 1_700_000_000_004L, 6_724_990L, 123L, 1L);
+        assertThat(decoded.get(2)).containsExactly(5003L, 1_700_000_000_004L, 6_725_100L, 1_200_000L, 0L);
+    }
+
+    @Test
+    void returnsNullWhenNoTradeParses() {
+        assertThat(encoder.encode("BTCUSDT", List.of("{\"type\":\"analysis\"}".getBytes(StandardCharsets.UTF_8))))
+                .isNull();
+    }
+
+    @Test
+    void scaleIsSmallestExactDecimalPlaces() {
+        assertThat(BinaryTradeFrameEncoder.scaleOf(67_250)).isEqualTo(0);
+        assertThat(BinaryTradeFrameEncoder.scaleOf(0.1)).isEqualTo(1);
+        assertThat(BinaryTradeFrameEncoder.scaleOf(0.00123)).isEqualTo(5);
+        assertThat(BinaryTradeFrameEncoder.scaleOf(67_250.12)).isEqualTo(2);
+        assertThat(BinaryTradeFrameEncoder.scaleOf(5.0E-7)).isEqualTo(7);
+        assertThat(BinaryTradeFrameEncoder.scaleOf(1.0E-8)).isEqualTo(8);
+    }
+
+    private static byte[] trade(long aggTradeId, String price, String quantity, long tradeTime, boolean buyerMaker) {
+        return ("{\"e\":\"aggTrade\",\"s\":\"BTCUSDT\",\"a\":" + aggTradeId + ",\"p\":\"" + price + "\",\"q\":\"" + quantity
+                + "\",\"T\":" + tradeTime + ",\"m\":" + buyerMaker + "}").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.bitwayws.redis.handler;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnapshotCursorTest {
+
+    private final List<String> gapRequests = new ArrayList<>();
+
+    // 로컬 스텁: 요청한 (afterId, beforeId) 구간을 인메모리 버퍼처럼 채워 준다
+    private final SnapshotCursor.GapFiller gapFiller = (afterId, beforeId) -> {
+        gapRequests.add(afterId + ".." + beforeId);
+        return LongStream.range(afterId + 1, beforeId).mapToObj(SnapshotCursorTest::trade).toList();
+    };
+
+    @Test
+    void dropsHeldFramesAlreadyInSnapshot() {
+        SnapshotCursor cursor = new SnapshotCursor();
+        cursor.hold(frames(3, 4, 5, 6));
+
+        List<byte[]> held = cursor.release(4);
+
+        assertThat(cursor.isPending()).isFalse();
+        assertThat(ids(cursor.advance(held, gapFiller))).containsExactly(5L, 6L);
+        assertThat(gapRequests).isEmpty();
+    }
+
+    @Test
+    void fillsGapBetweenSnapshotAndFirstLiveFrame() {
+        SnapshotCursor cursor = new SnapshotCursor();
+        cursor.release(10);
+
+        assertThat(ids(cursor.advance(frames(13, 14), gapFiller))).containsExactly(11L, 12L, 13L, 14L);
+        assertThat(gapRequests).containsExactly("10..13");
+    }
+
+    @Test
+    void joinsOnFirstLiveFrameAfterSnapshot() {
+        SnapshotCursor cursor = new SnapshotCursor();
+        assertThat(cursor.isPending()).isTrue();
+        cursor.hold(frames(5));
+        assertThat(cursor.isJoined()).isFalse();
+
+        cursor.advance(cursor.release(5), gapFiller);
+        assertThat(cursor.isJoined()).isFalse(); // 보류분이 모두 스냅샷에 포함됨
+
+        cursor.advance(frames(4), gapFiller);
+        assertThat(cursor.isJoined()).isFalse();
+
+        assertThat(ids(cursor.advance(frames(6), gapFiller))).containsExactly(6L);
+        assertThat(cursor.isJoined()).isTrue();
+    }
+
+    @Test
+    void failedSnapshotPassesFramesThroughUnchanged() {
+        SnapshotCursor cursor = new SnapshotCursor();
+        List<byte[]> held = frames(7, 8);
+        held.add("{\"type\":\"analysisDelta\"}".getBytes(StandardCharsets.UTF_8));
+        cursor.hold(held);
+
+        List<byte[]> out = cursor.advance(cursor.release(-1), gapFiller);
+
+        assertThat(out).containsExactlyElementsOf(held);
+        assertThat(gapRequests).isEmpty();
+        assertThat(cursor.isJoined()).isTrue();
+    }
+
+    private static List<byte[]> frames(long... ids) {
+        List<byte[]> frames = new ArrayList<>();
+        for (long id : ids) frames.add(trade(id));
+        return frames;
+    }
+
+    private static byte[] trade(long id) {
+        return ("{\"e\":\"aggTrade\",\"s\":\"BTCUSDT\",\"a\":" + id + ",\"p\":\"100.0\",\"q\":\"1.0\",\"T\":" + id
+                + ",\"m\":false}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<Long> ids(List<byte[]> frames) {
+        List<Long> ids = new ArrayList<>();
+        for (byte[] frame : frames) {
+            String json = new String(frame, StandardCharsets.UTF_8);
+            int start = json.indexOf("\"a\":") + 4;
+            ids.add(Long.parseLong(json.substring(start, json.indexOf(',', start))));
+        }
+        return ids;
+    }
+}
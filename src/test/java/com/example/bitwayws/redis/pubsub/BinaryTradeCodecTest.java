@@ -0,0 +1,118 @@
+package com.example.bitwayws.redis.pubsub;
+
+import com.example.bitwayws.dto.AggTradeSlot;
+import com.example.bitwayws.websocket.AggTradeParser;
+import com.example.bitwayws.websocket.AsciiCharSequence;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinaryTradeCodecTest {
+
+    private final BinaryTradeCodec codec = new BinaryTradeCodec();
+    private final TradeFrameDecoder decoder = new TradeFrameDecoder();
+    private final List<byte[]> frames = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(codec, "lz4Analysis", true);
+        ReflectionTestUtils.setField(codec, "lz4MinBytes", 1024);
+    }
+
+    @Test
+    void tradeBatchRoundTrip() {
+        List<byte[]> records = List.of(
+                codec.encodeTrade(trade(1001, 67_250.12, 0.5, 1_700_000_000_000L, false), null),
+                codec.encodeTrade(trade(1002, 67_249.9, 1.0E-5, 1_700_000_000_015L, true), null));
+
+        List<byte[]> messages = codec.frameTrades(records);
+        assertThat(messages).hasSize(1);
+        assertThat(decoder.decode(messages.get(0), frames::add)).isTrue();
+
+        assertThat(frames).hasSize(2);
+        AggTradeSlot first = parse(frames.get(0));
+        assertThat(first.getSymbol()).isEqualTo("BTCUSDT");
+        assertThat(first.getAggTradeId()).isEqualTo(1001L);
+        assertThat(first.getPrice()).isEqualTo(67_250.12);
+        assertThat(first.getQuantity()).isEqualTo(0.5);
+        assertThat(first.getTimestamp()).isEqualTo(1_700_000_000_000L);
+        assertThat(first.isBuyerMaker()).isFalse();
+
+        AggTradeSlot second = parse(frames.get(1));
+        assertThat(second.getAggTradeId()).isEqualTo(1002L);
+        assertThat(second.getPrice()).isEqualTo(67_249.9);
+        assertThat(second.getQuantity()).isEqualTo(1.0E-5);
+        assertThat(second.getTimestamp()).isEqualTo(1_700_000_000_015L);
+        assertThat(second.isBuyerMaker()).isTrue();
+        // 지수 표기 없이 Binance 와 같은 소수 문자열
+        assertThat(new String(frames.get(1), StandardCharsets.US_ASCII).contains("E-")).isFalse();
+    }
+
+    @Test
+    void smallAnalysisIsSentUncompressed() {
+        String json = "{\"type\":\"analysis\",\"symbol\":\"BTCUSDT\"}";
+
+        byte[] body = codec.encodeAnalysis(json);
+
+        assertThat(body[1]).isEqualTo(BinaryTradeCodec.TYPE_ANALYSIS);
+        assertThat(decoder.decode(body, frames::add)).isTrue();
+        assertThat(new String(frames.get(0), StandardCharsets.UTF_8)).isEqualTo(json);
+    }
+
+    @Test
+    void largeAnalysisRoundTripsThroughLz4() {
+        StringBuilder json = new StringBuilder("{\"type\":\"analysis\",\"tradeLevels\":{");
+        for (int level = 1; level <= 200; level++) {
+            if (level > 1) json.append(',');
+            json.append('"').append(level).append("\":").append(level * 17L);
+        }
+        json.append("}}");
+        assertThat(json.length()).isGreaterThan(1024);
+
+        byte[] body = codec.encodeAnalysis(json.toString());
+
+        assertThat(body[1]).isEqualTo(BinaryTradeCodec.TYPE_ANALYSIS_LZ4);
+        assertThat(body.length < json.length()).isTrue();
+        assertThat(decoder.decode(body, frames::add)).isTrue();
+        assertThat(new String(frames.get(0), StandardCharsets.UTF_8)).isEqualTo(json.toString());
+    }
+
+    @Test
+    void jsonBodyPassesThrough() {
+        byte[] body = "{\"e\":\"aggTrade\"}".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(decoder.decode(body, frames::add)).isTrue();
+        assertThat(frames).containsExactly(body);
+    }
+
+    @Test
+    void unknownVersionOrTypeIsRejected() {
+        assertThat(decoder.decode(new byte[]{2, BinaryTradeCodec.TYPE_TRADES, 0, 0}, frames::add)).isFalse();
+        assertThat(decoder.decode(new byte[]{BinaryTradeCodec.VERSION_1, 9, 0, 0}, frames::add)).isFalse();
+        assertThat(decoder.decode(new byte[0], frames::add)).isFalse();
+        assertThat(frames).isEmpty();
+    }
+
+    private static AggTradeSlot trade(long aggTradeId, double price, double quantity, long timestamp, boolean buyerMaker) {
+        AggTradeSlot trade = new AggTradeSlot();
+        trade.setSymbol("BTCUSDT");
+        trade.setAggTradeId(aggTradeId);
+        trade.setPrice(price);
+        trade.setQuantity(quantity);
+        trade.setTimestamp(timestamp);
+        trade.setBuyerMaker(buyerMaker);
+        return trade;
+    }
+
+    private static AggTradeSlot parse(byte[] frame) {
+        AggTradeSlot slot = new AggTradeSlot();
+        assertThat(new AggTradeParser().parse(new AsciiCharSequence().wrap(frame), slot)).isTrue();
+        return slot;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.bitwayws.redis.service;
+
+import com.example.bitwayws.dto.AggTradeSlot;
+import com.example.bitwayws.dto.BinanceAggTradeResDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class TradeSequenceTrackerTest {
+
+    private final TradeAggAnalysisService analysisService = mock(TradeAggAnalysisService.class);
+    private final List<String> events = new CopyOnWriteArrayList<>();
+
+    // 로컬 스텁: 요청한 범위의 체결을 id 순서대로 돌려준다
+    private final AggTradeHistorySource historySource = (symbol, fromId, limit) ->
+            LongStream.range(fromId, fromId + limit).mapToObj(id -> historical(symbol, id)).toList();
+
+    private TradeSequenceTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            events.add("live:" + invocation.<AggTradeSlot>getArgument(0).getAggTradeId());
+            return null;
+        }).when(analysisService).processTrade(any(), any());
+        doAnswer(invocation -> {
+            events.add("backfill:" + invocation.<AggTradeSlot>getArgument(0).getAggTradeId());
+            return null;
+        }).when(analysisService).applyTrade(any());
+
+        tracker = new TradeSequenceTracker(analysisService, historySource, mock(SymbolRegistry.class));
+        ReflectionTestUtils.setField(tracker, "parallelism", 3);
+        ReflectionTestUtils.setField(tracker, "maxBackfillTrades", 500_000L);
+        ReflectionTestUtils.setField(tracker, "maxPending", 1000);
+        ReflectionTestUtils.setField(tracker, "maxRetries", 1);
+        tracker.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracker.shutdown();
+    }
+
+    @Test
+    void dropsDuplicates() {
+        for (long id : new long[]{1, 2, 2, 1, 3}) {
+            tracker.accept(live(id), "frame");
+        }
+
+        assertThat(events).containsExactly("live:1", "live:2", "live:3");
+        assertThat(tracker.getDuplicateCount("BTCUSDT")).isEqualTo(2);
+    }
+
+    @Test
+    void backfillsGapBeforeLiveResumes() throws InterruptedException {
+        tracker.accept(live(1), "frame");
+        tracker.accept(live(2500), "frame");
+        tracker.accept(live(2501), "frame");
+        awaitRecovered();
+        tracker.accept(live(2502), "frame");
+
+        List<String> expected = new ArrayList<>();
+        expected.add("live:1");
+        LongStream.rangeClosed(2, 2499).forEach(id -> expected.add("backfill:" + id));
+        expected.addAll(List.of("live:2500", "live:2501", "live:2502"));
+        assertThat(events).containsExactlyElementsOf(expected);
+        assertThat(tracker.getGapCount("BTCUSDT")).isEqualTo(1);
+        assertThat(tracker.getBackfilledCount("BTCUSDT")).isEqualTo(2498);
+    }
+
+    private void awaitRecovered() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (tracker.isRecovering("BTCUSDT") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(tracker.isRecovering("BTCUSDT")).isFalse();
+    }
+
+    private static AggTradeSlot live(long id) {
+        AggTradeSlot trade = new AggTradeSlot();
+        trade.setSymbol("BTCUSDT");
+        trade.setAggTradeId(id);
+        trade.setPrice(100);
+        trade.setQuantity(1);
+        trade.setTimestamp(id);
+        return trade;
+    }
+
+    private static BinanceAggTradeResDto historical(String symbol, long id) {
+        BinanceAggTradeResDto trade = new BinanceAggTradeResDto();
+        trade.setSymbol(symbol.toUpperCase());
+        trade.setAggTradeId(id);
+        trade.setPrice(100);
+        trade.setQuantity(1);
+        trade.setTimestamp(id);
+        return trade;
+    }
+}
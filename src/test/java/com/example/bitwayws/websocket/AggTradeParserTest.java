@@ -0,0 +1,61 @@
+package com.example.bitwayws.websocket;
+
+import com.example.bitwayws.dto.AggTradeSlot;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AggTradeParserTest {
+
+    private final AggTradeParser parser = new AggTradeParser();
+
+    @Test
+    void parsesBinanceAggTradeFrame() {
+        String frame = "{\"e\":\"aggTrade\",\"E\":1672515782136,\"s\":\"BTCUSDT\",\"a\":12345,\"p\":\"117234.56000000\","
+                + "\"q\":\"0.00100000\",\"f\":100,\"l\":105,\"T\":1672515782130,\"m\":true,\"M\":true}";
+        AggTradeSlot trade = new AggTradeSlot();
+
+        assertThat(parser.parse(frame, trade)).isTrue();
+        assertThat(trade.getAggTradeId()).isEqualTo(12345L);
+        assertThat(trade.getPrice()).isEqualTo(117234.56);
+        assertThat(trade.getQuantity()).isEqualTo(0.001);
+        assertThat(trade.getTimestamp()).isEqualTo(1672515782130L);
+        assertThat(trade.isBuyerMaker()).isTrue();
+        assertThat(trade.getSymbol()).isEqualTo("BTCUSDT");
+    }
+
+    @Test
+    void reusesSymbolInstanceAcrossFrames() {
+        AggTradeSlot trade = new AggTradeSlot();
+        parser.parse("{\"s\":\"BTCUSDT\",\"a\":1,\"p\":\"1\",\"q\":\"1\",\"T\":1,\"m\":false}", trade);
+        String first = trade.getSymbol();
+        parser.parse("{\"s\":\"BTCUSDT\",\"a\":2,\"p\":\"1\",\"q\":\"1\",\"T\":2,\"m\":false}", trade);
+
+        assertThat(trade.getSymbol()).isSameAs(first);
+    }
+
+    @Test
+    void returnsFalseForNonTradeMessages() {
+        assertThat(parser.parse("{\"result\":null,\"id\":1}", new AggTradeSlot())).isFalse();
+    }
+
+    @Test
+    void parsesCombinedStreamWrapper() {
+        String data = "{\"e\":\"aggTrade\",\"s\":\"ETHUSDT\",\"a\":7,\"p\":\"3500.5\",\"q\":\"2\",\"T\":10,\"m\":false}";
+        String frame = "{\"stream\":\"ethusdt@aggTrade\",\"data\":" + data + "}";
+        AggTradeSlot trade = new AggTradeSlot();
+
+        assertThat(parser.parseStream(frame, trade)).isTrue();
+        assertThat(trade.getSymbol()).isEqualTo("ETHUSDT");
+        assertThat(trade.getPrice()).isEqualTo(3500.5);
+        assertThat(frame.substring(parser.getDataStart(), parser.getDataEnd())).isEqualTo(data);
+        assertThat(parser.parseStream("{\"result\":null,\"id\":1}", trade)).isFalse();
+    }
+
+    @Test
+    void rejectsTruncatedFrame() {
+        assertThatThrownBy(() -> parser.parse("{\"a\":", new AggTradeSlot()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}